@@ -0,0 +1,67 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files and flag regressions.
+
+Usage:
+    python3 compare_results.py baseline.json current.json [--threshold 0.10]
+
+Exits with status 1 if any benchmark got slower (or lost throughput) by more
+than the threshold, so it can gate a deploy.
+"""
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    scores = {}
+    for result in results:
+        params = result.get("params") or {}
+        key = result["benchmark"]
+        if params:
+            key += " [" + ", ".join(f"{k}={v}" for k, v in sorted(params.items())) + "]"
+        metric = result["primaryMetric"]
+        scores[key] = (metric["score"], metric.get("scoreError", 0.0), metric["scoreUnit"], result["mode"])
+    return scores
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=0.10,
+                        help="relative change that counts as a regression (default 0.10 = 10%%)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+
+    regressions = 0
+    print(f"{'benchmark':<90} {'baseline':>14} {'current':>14} {'change':>9}")
+    for key in sorted(set(baseline) | set(current)):
+        if key not in baseline or key not in current:
+            side = "baseline" if key in baseline else "current"
+            print(f"{key:<90} only in {side}")
+            continue
+        base_score, _, unit, mode = baseline[key]
+        cur_score, cur_error, _, _ = current[key]
+        change = (cur_score - base_score) / base_score if base_score else 0.0
+        # Throughput modes: lower is worse. Time modes (avgt, sample, ss): higher is worse.
+        worse = -change if mode == "thrpt" else change
+        flag = ""
+        if worse > args.threshold:
+            flag = "  REGRESSION"
+            regressions += 1
+        elif worse < -args.threshold:
+            flag = "  improved"
+        print(f"{key:<90} {base_score:>10.3f} {unit:<3} {cur_score:>10.3f} {unit:<3} {change:>+8.1%}{flag}")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) regressed by more than {args.threshold:.0%}")
+        sys.exit(1)
+    print("\nNo regressions above threshold")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,125 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.model.Cafe;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.util.JwtUtils;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Shared fixtures for the benchmarks. Everything is generated from fixed seeds
+ * so runs on different machines measure the same data.
+ */
+public final class BenchmarkSupport {
+
+    private static final char[] NAME_ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789_".toCharArray();
+    private static final String[] TAGS = {"wifi", "outlets", "bathrooms", "metro-friendly", "quiet", "patio"};
+
+    private BenchmarkSupport() {
+    }
+
+    // Deterministic usernames, 6-14 characters long
+    public static String[] usernames(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            int length = 6 + random.nextInt(9);
+            char[] chars = new char[length];
+            for (int c = 0; c < length; c++) {
+                chars[c] = NAME_ALPHABET[random.nextInt(NAME_ALPHABET.length)];
+            }
+            names[i] = new String(chars);
+        }
+        return names;
+    }
+
+    public static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        setField(jwtUtils, "secret", "benchmark-secret-key-that-is-long-enough-for-hs256-signing");
+        setField(jwtUtils, "expiration", 86_400_000L);
+        return jwtUtils;
+    }
+
+    // Cafes shaped like the seed data, spread over the Los Angeles area
+    public static List<Cafe> cafes(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Cafe> cafes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Cafe cafe = new Cafe();
+            setField(cafe, "cafeId", i + 1);
+            setField(cafe, "name", "Cafe " + Integer.toString(i, 36));
+            setField(cafe, "address", (100 + random.nextInt(9000)) + " S Broadway, Los Angeles, CA");
+            setField(cafe, "latitude", 33.9 + random.nextDouble() * 0.3);
+            setField(cafe, "longitude", -118.5 + random.nextDouble() * 0.4);
+            setField(cafe, "price", (double) (1 + random.nextInt(3)));
+            setField(cafe, "tags", TAGS[random.nextInt(TAGS.length)] + "," + TAGS[random.nextInt(TAGS.length)]);
+            setField(cafe, "aiSummary", "Bright space with excellent espresso and plenty of seating for studying.");
+            cafe.setOverallRating(random.nextInt(11) / 2.0);
+            cafes.add(cafe);
+        }
+        return cafes;
+    }
+
+    // A CafeStore holding the given cafes, each with 1-50 reviews all rated its overallRating
+    public static CafeStore cafeStore(List<Cafe> cafes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<Integer, double[]> ratingStats = new HashMap<>();
+        Map<Integer, int[]> ratingHistograms = new HashMap<>();
+        for (Cafe cafe : cafes) {
+            int count = 1 + random.nextInt(50);
+            ratingStats.put(cafe.getCafeId(), new double[]{cafe.getOverallRating() * count, count});
+            int[] histogram = new int[CafeStore.HISTOGRAM_BUCKETS];
+            histogram[(int) Math.round(cafe.getOverallRating() * 2)] = count;
+            ratingHistograms.put(cafe.getCafeId(), histogram);
+        }
+        CafeStore store = new CafeStore(null, null);
+        store.replaceAll(cafes, ratingStats, ratingHistograms);
+        return store;
+    }
+
+    // Review listing in the shape ReviewController.getReviewsForCafe returns
+    public static Map<String, Object> reviewResponse(int reviewCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Map<String, Object>> reviews = new ArrayList<>(reviewCount);
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < reviewCount; i++) {
+            Map<String, Object> reviewMap = new HashMap<>();
+            reviewMap.put("id", (long) i + 1);
+            reviewMap.put("rating", random.nextInt(11) / 2.0);
+            reviewMap.put("comment", "Great latte, friendly staff, a little crowded in the afternoon.");
+            reviewMap.put("createdAt", base.plusMinutes(random.nextInt(500_000)));
+            reviewMap.put("username", "user" + random.nextInt(100_000));
+            reviewMap.put("userId", (long) random.nextInt(100_000));
+            reviews.add(reviewMap);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("reviews", reviews);
+        response.put("averageRating", 4.2);
+        response.put("reviewCount", reviewCount);
+        response.put("cafe", Map.of(
+                "id", 1,
+                "name", "Blue Bottle Coffee",
+                "address", "300 S Broadway, Los Angeles, CA",
+                "price", 1.0,
+                "tags", "bathrooms,outlets",
+                "aiSummary", "Bright space with excellent espresso."
+        ));
+        return response;
+    }
+
+    public static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.model.Cafe;
+import com.csci201.project.store.CafeStore;
+
+import java.util.List;
+
+/**
+ * Retained heap per cafe: a list of Cafe entities against the same cafes held in CafeStore.
+ * Entities are counted as detached objects, so Hibernate's persistence-context copies
+ * (snapshots, entity entries) come on top of the entity figure in a live session.
+ *
+ * Usage: java -cp benchmarks.jar com.csci201.project.benchmarks.CafeFootprint [cafes]
+ */
+public final class CafeFootprint {
+
+    private CafeFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        long baseline = usedHeap();
+        List<Cafe> cafes = generate(count);
+        long entityBytes = usedHeap() - baseline;
+        System.out.printf("Cafe entities: %,d bytes total, %,.1f bytes per cafe%n",
+                entityBytes, (double) entityBytes / count);
+
+        CafeStore store = BenchmarkSupport.cafeStore(cafes, 42);
+        cafes = null;
+        long storeBytes = usedHeap() - baseline;
+        System.out.printf("CafeStore:     %,d bytes total, %,.1f bytes per cafe (%d cafes)%n",
+                storeBytes, (double) storeBytes / count, store.size());
+    }
+
+    // Same shape as BenchmarkSupport.cafes but with a distinct summary per cafe, as real data has
+    private static List<Cafe> generate(int count) {
+        List<Cafe> cafes = BenchmarkSupport.cafes(count, 42);
+        for (Cafe cafe : cafes) {
+            BenchmarkSupport.setField(cafe, "aiSummary", cafe.getAiSummary() + " #" + cafe.getCafeId());
+        }
+        return cafes;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
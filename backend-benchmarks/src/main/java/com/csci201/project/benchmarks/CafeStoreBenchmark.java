@@ -0,0 +1,82 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.dto.CafeDTO;
+import com.csci201.project.model.Cafe;
+import com.csci201.project.store.CafeSort;
+import com.csci201.project.store.CafeStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter-and-sort over the columnar CafeStore against the same query over a list of Cafe
+ * entities (already loaded, so the entity side does not even pay for Hibernate), plus a
+ * parallel scan aggregating ratings by price tier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CafeStoreBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Cafe> cafes;
+    private CafeStore store;
+
+    @Setup
+    public void setUp() {
+        cafes = BenchmarkSupport.cafes(size, 42);
+        store = BenchmarkSupport.cafeStore(cafes, 42);
+    }
+
+    @Benchmark
+    public List<CafeDTO> storeFilterSort() {
+        return store.find(4.0, 2.0, "wifi", CafeSort.RATING, 20);
+    }
+
+    @Benchmark
+    public List<Cafe> entityFilterSort() {
+        return cafes.stream()
+                .filter(cafe -> cafe.getOverallRating() >= 4.0)
+                .filter(cafe -> cafe.getPrice() <= 2.0)
+                .filter(cafe -> Arrays.asList(cafe.getTags().split(",")).contains("wifi"))
+                .sorted(Comparator.comparingDouble(Cafe::getOverallRating).reversed())
+                .limit(20)
+                .toList();
+    }
+
+    // Sum of ratings and cafe count per price tier (1-3)
+    @Benchmark
+    public double[] storeParallelScan() {
+        return store.parallelScan(
+                () -> new double[8],
+                (totals, columns, row) -> {
+                    int tier = (int) columns.price(row);
+                    totals[tier * 2] += columns.rating(row);
+                    totals[tier * 2 + 1]++;
+                },
+                (a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i] += b[i];
+                    }
+                    return a;
+                });
+    }
+}
@@ -0,0 +1,63 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.store.CafeView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /api/cafes for the whole catalog in each view (marker, card, full): projecting the rows
+ * out of CafeStore alone, and projecting plus encoding as JSON, which is what a request costs.
+ * JSON sizes are printed once per trial since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CafeViewBenchmark {
+
+    @Param({"marker", "card", "full"})
+    public String view;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private CafeStore store;
+    private CafeView cafeView;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        store = BenchmarkSupport.cafeStore(BenchmarkSupport.cafes(size, 42), 42);
+        cafeView = CafeView.fromParam(view);
+        byte[] json = objectMapper.writeValueAsBytes(store.find(null, null, null, null, null, cafeView));
+        System.out.printf("%n[payload] view=%s size=%d json=%d bytes (%.0f per cafe)%n",
+                view, size, json.length, (double) json.length / size);
+    }
+
+    @Benchmark
+    public List<?> project() {
+        return store.find(null, null, null, null, null, cafeView);
+    }
+
+    @Benchmark
+    public byte[] projectAndEncode() throws Exception {
+        return objectMapper.writeValueAsBytes(store.find(null, null, null, null, null, cafeView));
+    }
+}
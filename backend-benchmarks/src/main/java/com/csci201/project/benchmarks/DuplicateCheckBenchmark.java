@@ -0,0 +1,63 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.model.Cafe;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.store.DuplicateCandidate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-duplicate check run by POST /api/cafes: a 30 m grid probe plus trigram name comparison,
+ * once at the location of an existing cafe with a slightly different name and once at a random point.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateCheckBenchmark {
+
+    private static final double RADIUS_METERS = 30;
+    private static final double MIN_SIMILARITY = 0.45;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private List<Cafe> cafes;
+    private CafeStore store;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        cafes = BenchmarkSupport.cafes(size, 42);
+        store = BenchmarkSupport.cafeStore(cafes, 42);
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public List<DuplicateCandidate> existingCafe() {
+        Cafe cafe = cafes.get(random.nextInt(cafes.size()));
+        return store.findNearDuplicates(cafe.getName().toUpperCase() + "!", cafe.getLatitude() + 0.0001,
+                cafe.getLongitude(), RADIUS_METERS, MIN_SIMILARITY);
+    }
+
+    @Benchmark
+    public List<DuplicateCandidate> randomPoint() {
+        return store.findNearDuplicates("Blue Bottle Coffee", 33.9 + random.nextDouble() * 0.3,
+                -118.5 + random.nextDouble() * 0.4, RADIUS_METERS, MIN_SIMILARITY);
+    }
+}
@@ -0,0 +1,61 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.model.Cafe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the two largest responses: the cafe list behind /api/cafes
+ * and the review map behind /api/reviews/cafe/{id}. The mapper is configured the way
+ * Spring Boot configures its default one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Cafe> cafes;
+    private Map<String, Object> reviewResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cafes = BenchmarkSupport.cafes(size, 42);
+        reviewResponse = BenchmarkSupport.reviewResponse(size, 42);
+    }
+
+    @Benchmark
+    public byte[] cafeList() throws Exception {
+        return objectMapper.writeValueAsBytes(cafes);
+    }
+
+    @Benchmark
+    public byte[] reviewMap() throws Exception {
+        return objectMapper.writeValueAsBytes(reviewResponse);
+    }
+}
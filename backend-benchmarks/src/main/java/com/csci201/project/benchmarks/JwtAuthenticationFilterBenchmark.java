@@ -0,0 +1,78 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.security.JwtAuthenticationFilter;
+import com.csci201.project.util.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request authentication path: header parsing, token validation and
+ * building the security context. The user lookup is an in-memory stub, so this
+ * measures the filter's own cost without the database round trip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = BenchmarkSupport.jwtUtils();
+        UserDetails user = User.withUsername("coffeeKing")
+                .password("{noop}unused")
+                .authorities("ROLE_USER")
+                .build();
+        UserDetailsService userDetailsService = username -> user;
+
+        filter = new JwtAuthenticationFilter();
+        BenchmarkSupport.setField(filter, "jwtUtils", jwtUtils);
+        BenchmarkSupport.setField(filter, "userDetailsService", userDetailsService);
+
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/users/me");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + jwtUtils.generateToken("coffeeKing"));
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/cafes");
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        return run(authenticatedRequest);
+    }
+
+    @Benchmark
+    public Object anonymousRequest() throws Exception {
+        return run(anonymousRequest);
+    }
+
+    private Object run(MockHttpServletRequest request) throws Exception {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
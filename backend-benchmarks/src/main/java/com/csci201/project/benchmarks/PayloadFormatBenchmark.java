@@ -0,0 +1,95 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.model.Cafe;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of the cafe list and review responses in each negotiable format
+ * (JSON, CBOR, Smile). Payload sizes are printed once per trial since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    private static final TypeReference<List<Map<String, Object>>> CAFE_LIST = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Object>> REVIEW_MAP = new TypeReference<>() {};
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Cafe> cafes;
+    private Map<String, Object> reviewResponse;
+    private byte[] encodedCafes;
+    private byte[] encodedReviews;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper(factory(format))
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cafes = BenchmarkSupport.cafes(size, 42);
+        reviewResponse = BenchmarkSupport.reviewResponse(size, 42);
+        encodedCafes = objectMapper.writeValueAsBytes(cafes);
+        encodedReviews = objectMapper.writeValueAsBytes(reviewResponse);
+        System.out.printf("%n[payload] format=%s size=%d cafeList=%d bytes reviewMap=%d bytes%n",
+                format, size, encodedCafes.length, encodedReviews.length);
+    }
+
+    @Benchmark
+    public byte[] encodeCafeList() throws Exception {
+        return objectMapper.writeValueAsBytes(cafes);
+    }
+
+    @Benchmark
+    public byte[] encodeReviewMap() throws Exception {
+        return objectMapper.writeValueAsBytes(reviewResponse);
+    }
+
+    // Decoded into generic maps, as a client without the server's model classes would
+    @Benchmark
+    public List<Map<String, Object>> decodeCafeList() throws Exception {
+        return objectMapper.readValue(encodedCafes, CAFE_LIST);
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeReviewMap() throws Exception {
+        return objectMapper.readValue(encodedReviews, REVIEW_MAP);
+    }
+
+    private static JsonFactory factory(String format) {
+        return switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+}
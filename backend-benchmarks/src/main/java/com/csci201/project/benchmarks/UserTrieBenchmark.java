@@ -0,0 +1,116 @@
+package com.csci201.project.benchmarks;
+
+import com.csci201.project.util.UserTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserTrie insert and prefix search at 10k, 1M and 10M usernames.
+ * The 10M case needs a large heap (see the fork settings); drop it with -p size=10000,1000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx24g"})
+public class UserTrieBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    // short = 2-character prefix (wide fan-out), long = 6-character prefix (few matches)
+    @Param({"short", "long"})
+    public String prefixLength;
+
+    // Names inserted per insert() call; each call is reported per insert
+    static final int INSERT_BATCH = 4096;
+
+    private UserTrie trie;
+    private String[] prefixes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        trie = new UserTrie();
+        String[] names = BenchmarkSupport.usernames(size, 42);
+        for (int i = 0; i < names.length; i++) {
+            trie.insert((long) i, names[i], names[i] + "@example.com");
+        }
+
+        int prefixChars = "short".equals(prefixLength) ? 2 : 6;
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = names[(int) ((long) i * names.length / prefixes.length)];
+            prefixes[i] = name.substring(0, Math.min(prefixChars, name.length()));
+        }
+    }
+
+    /**
+     * Names that are not in the trie. The batch is removed again after every insert() call
+     * (untimed), so each measured call inserts new keys instead of overwriting earlier ones.
+     */
+    @State(Scope.Benchmark)
+    public static class InsertBatch {
+        String[] names;
+        String[] emails;
+
+        @Setup(Level.Trial)
+        public void setUp(UserTrieBenchmark benchmark) {
+            Set<String> chosen = new LinkedHashSet<>();
+            SplittableRandom random = new SplittableRandom(7);
+            while (chosen.size() < INSERT_BATCH) {
+                String name = BenchmarkSupport.usernames(1, random.nextLong())[0];
+                boolean present = benchmark.trie.searchByPrefix(name).stream()
+                        .anyMatch(result -> result.getUsername().equalsIgnoreCase(name));
+                if (!present) {
+                    chosen.add(name);
+                }
+            }
+            names = chosen.toArray(new String[0]);
+            emails = new String[names.length];
+            for (int i = 0; i < names.length; i++) {
+                emails[i] = names[i] + "@example.com";
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void removeInserted(UserTrieBenchmark benchmark) {
+            for (String name : names) {
+                benchmark.trie.remove(name);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<UserTrie.UserTrieResult> searchByPrefix() {
+        String prefix = prefixes[cursor++ & (prefixes.length - 1)];
+        return trie.searchByPrefix(prefix);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_BATCH)
+    public void insert(InsertBatch batch) {
+        for (int i = 0; i < INSERT_BATCH; i++) {
+            trie.insert((long) (size + i), batch.names[i], batch.emails[i]);
+        }
+    }
+}
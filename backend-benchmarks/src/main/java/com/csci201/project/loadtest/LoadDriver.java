@@ -0,0 +1,242 @@
+package com.csci201.project.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-model HTTP load driver for a backend running the loadtest profile.
+ * Requests are launched on a fixed schedule at the target rate (each on its own virtual thread),
+ * and latency is measured from the scheduled start, so a slow server cannot hide queueing
+ * by slowing the driver down (no coordinated omission).
+ *
+ * Usage:
+ *   java -cp backend-benchmarks/target/benchmarks.jar com.csci201.project.loadtest.LoadDriver \
+ *       --base-url http://localhost:8080 --rps 200 --duration 60 --users 10000 --cafes 2000
+ *
+ * The request mix approximates the frontend: cafe list, trending, per-cafe reviews
+ * (Zipf-skewed cafe ids), user search and login.
+ */
+public class LoadDriver {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final String baseUrl;
+    private final int rps;
+    private final int durationSeconds;
+    private final int userCount;
+    private final int cafeCount;
+    private final long seed;
+    private final HttpClient client;
+    private final List<Endpoint> mix = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private double[] cafeCdf;
+
+    public LoadDriver(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        this.rps = Integer.parseInt(options.getOrDefault("rps", "100"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.userCount = Integer.parseInt(options.getOrDefault("users", "10000"));
+        this.cafeCount = Integer.parseInt(options.getOrDefault("cafes", "2000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        // Weights add up to 100
+        mix.add(new Endpoint("GET /api/cafes", 25, random -> get("/api/cafes", null)));
+        mix.add(new Endpoint("GET /api/cafes/trending", 15, random -> get("/api/cafes/trending", null)));
+        mix.add(new Endpoint("GET /api/reviews/cafe/{id}", 40, random -> get("/api/reviews/cafe/" + zipfCafe(random), null)));
+        mix.add(new Endpoint("GET /api/users/search", 15, random -> get("/api/users/search?query="
+                + URLEncoder.encode("user" + (1 + random.nextInt(99)), StandardCharsets.UTF_8), randomToken(random))));
+        mix.add(new Endpoint("POST /api/auth/login", 5, random -> login(1 + random.nextInt(userCount))));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        new LoadDriver(options).run();
+    }
+
+    public void run() throws Exception {
+        cafeCdf = zipfCdf(cafeCount, 1.1);
+        warmUpTokens();
+
+        System.out.printf("Driving %d req/s for %d s against %s%n", rps, durationSeconds, baseUrl);
+        SplittableRandom random = new SplittableRandom(seed);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long totalRequests = (long) rps * durationSeconds;
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < totalRequests; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                long wait = scheduledAt - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                Endpoint endpoint = pick(random);
+                SplittableRandom requestRandom = random.split();
+                executor.submit(() -> endpoint.execute(requestRandom, scheduledAt));
+            }
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        report(elapsed);
+    }
+
+    private void warmUpTokens() throws Exception {
+        for (int i = 1; i <= Math.min(50, userCount); i++) {
+            HttpResponse<String> response = login(i);
+            Matcher matcher = TOKEN.matcher(response.body());
+            if (response.statusCode() == 200 && matcher.find()) {
+                tokens.add(matcher.group(1));
+            }
+        }
+        if (tokens.isEmpty()) {
+            System.out.println("Warning: could not log in any generated user; search requests will be unauthenticated");
+        }
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> login(int userIndex) throws Exception {
+        String body = "{\"username\":\"" + SyntheticDataGenerator.username(userIndex)
+                + "\",\"password\":\"" + SyntheticDataGenerator.PASSWORD + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String randomToken(SplittableRandom random) {
+        return tokens.isEmpty() ? null : tokens.get(random.nextInt(tokens.size()));
+    }
+
+    private int zipfCafe(SplittableRandom random) {
+        int index = Arrays.binarySearch(cafeCdf, random.nextDouble());
+        return 1 + (index >= 0 ? index : Math.min(-index - 1, cafeCdf.length - 1));
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        for (Endpoint endpoint : mix) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private void report(double elapsedSeconds) {
+        System.out.printf("%nCompleted in %.1f s%n", elapsedSeconds);
+        System.out.printf("%-30s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "err%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : mix) {
+            long[] latencies = endpoint.latencies();
+            Arrays.sort(latencies);
+            long count = latencies.length;
+            long errors = endpoint.errors.get();
+            System.out.printf("%-30s %8d %8d %7.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    endpoint.name, count, errors, count == 0 ? 0.0 : 100.0 * errors / count,
+                    percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), count == 0 ? 0.0 : latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> send(SplittableRandom random) throws Exception;
+    }
+
+    private static class Endpoint {
+        private final String name;
+        private final int weight;
+        private final Call call;
+        private final AtomicLong errors = new AtomicLong();
+        private long[] latencies = new long[1024];
+        private int size;
+
+        Endpoint(String name, int weight, Call call) {
+            this.name = name;
+            this.weight = weight;
+            this.call = call;
+        }
+
+        void execute(SplittableRandom random, long scheduledAt) {
+            boolean failed;
+            try {
+                HttpResponse<String> response = call.send(random);
+                failed = response.statusCode() >= 400;
+            } catch (Exception e) {
+                failed = true;
+            }
+            record(System.nanoTime() - scheduledAt);
+            if (failed) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private synchronized void record(long nanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+        }
+
+        synchronized long[] latencies() {
+            return Arrays.copyOf(latencies, size);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+#!/bin/bash
+
+# Compares startup of the backend build variants: plain JVM, JVM + AOT, JVM + AOT + CDS and
+# the GraalVM native image. For each run it records time-to-first-request (process launch until
+# GET /api/cafes returns 200) and the resident set size after that first request.
+#
+# Runs against the loadtest profile (embedded H2) with a small data set so no database is needed.
+#
+# Usage: ./startup-benchmark.sh [runs] [variants...]
+#   runs      number of launches per variant (default 5)
+#   variants  any of: jvm aot cds native (default: jvm aot cds, plus native if GraalVM is on PATH)
+
+set -euo pipefail
+
+SCRIPT_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" && pwd )"
+BACKEND_DIR="$SCRIPT_DIR/../backend"
+WORK_DIR="$BACKEND_DIR/target/startup"
+PORT="${PORT:-8089}"
+RUNS="${1:-5}"
+shift || true
+
+VARIANTS=("$@")
+if [ ${#VARIANTS[@]} -eq 0 ]; then
+    VARIANTS=(jvm aot cds)
+    if command -v native-image > /dev/null; then
+        VARIANTS+=(native)
+    fi
+fi
+
+APP_ARGS=(
+    --server.port="$PORT"
+    --spring.profiles.active=loadtest
+    --loadtest.users=200
+    --loadtest.cafes=100
+    --loadtest.reviews=1000
+)
+MAIN_CLASS=com.csci201.project.ProjectApplication
+EXEC_JAR="$BACKEND_DIR/target/project-1.0.0-exec.jar"
+
+build() {
+    echo "Building AOT-processed jar..."
+    (cd "$BACKEND_DIR" && mvn -B -q -Pfast-start,loadtest -Daot.profiles=loadtest -DskipTests package)
+
+    # CDS cannot read classes nested inside the boot jar, so unpack it into a plain classpath
+    rm -rf "$WORK_DIR" && mkdir -p "$WORK_DIR/exploded"
+    (cd "$WORK_DIR/exploded" && jar xf "$EXEC_JAR")
+    # ...and CDS refuses non-empty directories on the classpath, so re-jar the application classes
+    jar cf "$WORK_DIR/application.jar" -C "$WORK_DIR/exploded/BOOT-INF/classes" .
+    CLASSPATH_CDS="$WORK_DIR/application.jar"
+    for lib in $(ls "$WORK_DIR/exploded/BOOT-INF/lib" | sort); do
+        CLASSPATH_CDS="$CLASSPATH_CDS:$WORK_DIR/exploded/BOOT-INF/lib/$lib"
+    done
+
+    echo "Recording CDS archive (training run exits once the context is refreshed)..."
+    java -XX:ArchiveClassesAtExit="$WORK_DIR/application.jsa" -Dspring.aot.enabled=true \
+        -Dspring.context.exit=onRefresh -cp "$CLASSPATH_CDS" "$MAIN_CLASS" "${APP_ARGS[@]}" \
+        > "$WORK_DIR/cds-training.log" 2>&1
+
+    if [[ " ${VARIANTS[*]} " == *" native "* ]]; then
+        echo "Building native image (this takes a few minutes)..."
+        (cd "$BACKEND_DIR" && mvn -B -q -Pfast-start,native,loadtest -Daot.profiles=loadtest -DskipTests native:compile)
+    fi
+}
+
+command_for() {
+    case "$1" in
+        jvm)    echo java -jar "$EXEC_JAR" ;;
+        aot)    echo java -Dspring.aot.enabled=true -jar "$EXEC_JAR" ;;
+        cds)    echo java -XX:SharedArchiveFile="$WORK_DIR/application.jsa" -Dspring.aot.enabled=true \
+                    -cp "$CLASSPATH_CDS" "$MAIN_CLASS" ;;
+        native) echo "$BACKEND_DIR/target/project" ;;
+        *)      echo "Unknown variant: $1" >&2; exit 1 ;;
+    esac
+}
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Prints "<time-to-first-request ms> <rss KiB>" for one launch
+measure() {
+    local variant="$1"
+    local start pid elapsed rss
+    start=$(now_ms)
+    $(command_for "$variant") "${APP_ARGS[@]}" > "$WORK_DIR/$variant.log" 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/cafes"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$variant exited before serving a request, see $WORK_DIR/$variant.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(awk '/VmRSS/ { print $2 }' "/proc/$pid/status")
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+build
+
+printf "\n%-8s %8s %8s %8s %12s\n" "variant" "min ms" "avg ms" "max ms" "avg RSS MiB"
+for variant in "${VARIANTS[@]}"; do
+    results=()
+    for _ in $(seq "$RUNS"); do
+        results+=("$(measure "$variant")")
+    done
+    printf "%s\n" "${results[@]}" | awk -v name="$variant" '
+        NR == 1 { min = $1; max = $1 }
+        { sum += $1; rss += $2; if ($1 < min) min = $1; if ($1 > max) max = $1 }
+        END { printf "%-8s %8d %8d %8d %12.1f\n", name, min, sum / NR, max, rss / NR / 1024 }'
+done
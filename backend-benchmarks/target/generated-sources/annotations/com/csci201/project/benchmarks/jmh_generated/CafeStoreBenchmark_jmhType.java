@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class CafeStoreBenchmark_jmhType extends CafeStoreBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class CafeViewBenchmark_jmhType extends CafeViewBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class DuplicateCheckBenchmark_jmhType extends DuplicateCheckBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class JacksonSerializationBenchmark_jmhType extends JacksonSerializationBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class JwtAuthenticationFilterBenchmark_jmhType extends JwtAuthenticationFilterBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class JwtUtilsBenchmark_jmhType extends JwtUtilsBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class PayloadFormatBenchmark_jmhType extends PayloadFormatBenchmark_jmhType_B3 {
+}
+
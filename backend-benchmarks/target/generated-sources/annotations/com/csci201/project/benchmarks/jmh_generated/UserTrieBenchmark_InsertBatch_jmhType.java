@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class UserTrieBenchmark_InsertBatch_jmhType extends UserTrieBenchmark_InsertBatch_jmhType_B3 {
+}
+
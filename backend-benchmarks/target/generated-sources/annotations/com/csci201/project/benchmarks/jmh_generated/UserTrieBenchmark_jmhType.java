@@ -0,0 +1,4 @@
+package com.csci201.project.benchmarks.jmh_generated;
+public class UserTrieBenchmark_jmhType extends UserTrieBenchmark_jmhType_B3 {
+}
+
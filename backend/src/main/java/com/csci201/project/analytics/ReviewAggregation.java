@@ -0,0 +1,95 @@
+package com.csci201.project.analytics;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fork-join aggregation of a ReviewSnapshot over the days [fromDay, fromDay + days).
+ * Each leaf counts its slice of rows into its own small arrays (per day, per half star,
+ * per cafe) which are summed on the way back up. Per-user counts go into one shared
+ * AtomicIntegerArray instead: there can be far more users than cafes, and a private
+ * user array per leaf would cost more memory than the contention it avoids.
+ */
+class ReviewAggregation extends RecursiveTask<ReviewAggregation.Partial> {
+
+    private static final int MIN_SLICE = 4096;
+
+    private final ReviewSnapshot snapshot;
+    private final int fromDay;
+    private final int days;
+    private final int start;
+    private final int end;
+    private final int threshold;
+    private final AtomicIntegerArray userCounts;
+
+    ReviewAggregation(ReviewSnapshot snapshot, int fromDay, int days, int parallelism, AtomicIntegerArray userCounts) {
+        this(snapshot, fromDay, days, 0, snapshot.size,
+                Math.max(MIN_SLICE, snapshot.size / Math.max(1, parallelism * 4)), userCounts);
+    }
+
+    private ReviewAggregation(ReviewSnapshot snapshot, int fromDay, int days, int start, int end,
+                              int threshold, AtomicIntegerArray userCounts) {
+        this.snapshot = snapshot;
+        this.fromDay = fromDay;
+        this.days = days;
+        this.start = start;
+        this.end = end;
+        this.threshold = threshold;
+        this.userCounts = userCounts;
+    }
+
+    static final class Partial {
+        final long[] perDay;
+        final long[] halfStars = new long[11];
+        final int[] perCafe;
+        long total;
+
+        Partial(int days, int cafes) {
+            perDay = new long[days];
+            perCafe = new int[cafes];
+        }
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < perDay.length; i++) {
+                perDay[i] += other.perDay[i];
+            }
+            for (int i = 0; i < halfStars.length; i++) {
+                halfStars[i] += other.halfStars[i];
+            }
+            for (int i = 0; i < perCafe.length; i++) {
+                perCafe[i] += other.perCafe[i];
+            }
+            total += other.total;
+            return this;
+        }
+    }
+
+    @Override
+    protected Partial compute() {
+        if (end - start <= threshold) {
+            return scan();
+        }
+        int mid = (start + end) >>> 1;
+        ReviewAggregation left = new ReviewAggregation(snapshot, fromDay, days, start, mid, threshold, userCounts);
+        ReviewAggregation right = new ReviewAggregation(snapshot, fromDay, days, mid, end, threshold, userCounts);
+        left.fork();
+        Partial rightResult = right.compute();
+        return left.join().merge(rightResult);
+    }
+
+    private Partial scan() {
+        Partial partial = new Partial(days, snapshot.cafeIds.length);
+        for (int i = start; i < end; i++) {
+            int day = snapshot.epochDays[i] - fromDay;
+            if (day < 0 || day >= days) {
+                continue;
+            }
+            partial.perDay[day]++;
+            partial.halfStars[snapshot.halfStars[i]]++;
+            partial.perCafe[snapshot.cafeIndexes[i]]++;
+            partial.total++;
+            userCounts.incrementAndGet(snapshot.userIndexes[i]);
+        }
+        return partial;
+    }
+}
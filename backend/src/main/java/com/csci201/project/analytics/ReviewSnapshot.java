@@ -0,0 +1,101 @@
+package com.csci201.project.analytics;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable copy of recent reviews held as parallel primitive arrays, one entry per review.
+ * User and cafe ids are mapped to dense indexes so aggregations can count into plain arrays.
+ */
+public final class ReviewSnapshot {
+
+    final int size;
+    final int[] epochDays;
+    final byte[] halfStars;      // rating rounded to the nearest half star, times two (0-10)
+    final int[] cafeIndexes;
+    final int[] userIndexes;
+    final int[] cafeIds;         // dense cafe index -> cafe id
+    final long[] userIds;        // dense user index -> user id
+    final LocalDate from;
+    final Instant takenAt;
+
+    private ReviewSnapshot(Builder builder, Instant takenAt) {
+        this.size = builder.size;
+        this.epochDays = Arrays.copyOf(builder.epochDays, size);
+        this.halfStars = Arrays.copyOf(builder.halfStars, size);
+        this.cafeIndexes = Arrays.copyOf(builder.cafeIndexes, size);
+        this.userIndexes = Arrays.copyOf(builder.userIndexes, size);
+        this.cafeIds = builder.cafeIds.clone();
+        this.userIds = builder.userIds.clone();
+        this.from = builder.from;
+        this.takenAt = takenAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    static final class Builder {
+
+        private final LocalDate from;
+        private int size;
+        private int[] epochDays = new int[1024];
+        private byte[] halfStars = new byte[1024];
+        private int[] cafeIndexes = new int[1024];
+        private int[] userIndexes = new int[1024];
+
+        private final Map<Integer, Integer> cafeIndexById = new HashMap<>();
+        private final Map<Long, Integer> userIndexById = new HashMap<>();
+        private int[] cafeIds = new int[0];
+        private long[] userIds = new long[0];
+
+        Builder(LocalDate from) {
+            this.from = from;
+        }
+
+        void add(long userId, int cafeId, double rating, LocalDate day) {
+            if (size == epochDays.length) {
+                int capacity = size * 2;
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                halfStars = Arrays.copyOf(halfStars, capacity);
+                cafeIndexes = Arrays.copyOf(cafeIndexes, capacity);
+                userIndexes = Arrays.copyOf(userIndexes, capacity);
+            }
+            epochDays[size] = (int) day.toEpochDay();
+            halfStars[size] = (byte) Math.max(0, Math.min(10, Math.round(rating * 2)));
+            cafeIndexes[size] = cafeIndexById.computeIfAbsent(cafeId, id -> {
+                int index = cafeIndexById.size();
+                cafeIds = append(cafeIds, index, id);
+                return index;
+            });
+            userIndexes[size] = userIndexById.computeIfAbsent(userId, id -> {
+                int index = userIndexById.size();
+                if (index == userIds.length) {
+                    userIds = Arrays.copyOf(userIds, Math.max(16, index * 2));
+                }
+                userIds[index] = id;
+                return index;
+            });
+            size++;
+        }
+
+        ReviewSnapshot build() {
+            cafeIds = Arrays.copyOf(cafeIds, cafeIndexById.size());
+            userIds = Arrays.copyOf(userIds, userIndexById.size());
+            return new ReviewSnapshot(this, Instant.now());
+        }
+
+        private static int[] append(int[] values, int index, int value) {
+            int[] result = index == values.length ? Arrays.copyOf(values, Math.max(16, index * 2)) : values;
+            result[index] = value;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.csci201.project.analytics;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Review trends over a window of days ending today, as served by /api/admin/stats.
+ *
+ * @param reviewsPerDay      ISO date -> reviews created that day, every day of the window included
+ * @param ratingDistribution rating rounded to the nearest half star ("0.0" to "5.0") -> reviews
+ */
+public record ReviewStats(
+        int windowDays,
+        LocalDate from,
+        LocalDate to,
+        long totalReviews,
+        Map<String, Long> reviewsPerDay,
+        Map<String, Long> ratingDistribution,
+        List<CafeVelocity> topCafesByVelocity,
+        List<TopReviewer> topReviewers,
+        Instant snapshotTakenAt) {
+
+    /** Reviews per day a cafe received over the window. */
+    public record CafeVelocity(int cafeId, String name, long reviews, double reviewsPerDay) {
+    }
+
+    public record TopReviewer(long userId, String username, long reviews) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.csci201.project.analytics;
+
+import com.csci201.project.model.User;
+import com.csci201.project.repository.UserRepository;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.util.SingleFlight;
+import com.csci201.project.util.StreamingJdbc;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Review trend statistics for operators. Reviews from the last admin.stats.max-window-days
+ * are copied into a ReviewSnapshot with one streaming read-only query (routed to a replica
+ * when replica routing is on) and aggregated in memory, so stats requests never run ad-hoc
+ * SQL against the primary. Snapshots and computed results are both reused for
+ * admin.stats.cache-ttl-seconds.
+ */
+@Service
+public class ReviewStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewStatsService.class);
+
+    private static final String[] HALF_STAR_LABELS =
+            {"0.0", "0.5", "1.0", "1.5", "2.0", "2.5", "3.0", "3.5", "4.0", "4.5", "5.0"};
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CafeStore cafeStore;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Value("${admin.stats.max-window-days:365}")
+    private int maxWindowDays;
+
+    @Value("${admin.stats.cache-ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    private JdbcTemplate streamingJdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    private volatile ReviewSnapshot snapshot;
+    private final Map<String, CachedStats> results = new ConcurrentHashMap<>();
+
+    private record CachedStats(ReviewStats stats, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    public void init() {
+        streamingJdbcTemplate = StreamingJdbc.template(dataSource, datasourceUrl);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public int getMaxWindowDays() {
+        return maxWindowDays;
+    }
+
+    /**
+     * Stats for the last days days (including today), with the top limit cafes and reviewers
+     */
+    public ReviewStats getStats(int days, int limit) {
+        String key = SingleFlight.key("admin.stats", days, limit);
+        CachedStats cached = results.get(key);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached.stats();
+        }
+        // Concurrent misses for the same window share one computation
+        return singleFlight.execute(key, () -> {
+            ReviewStats stats = compute(currentSnapshot(), days, limit);
+            results.put(key, new CachedStats(stats, Instant.now().plusSeconds(cacheTtlSeconds)));
+            return stats;
+        });
+    }
+
+    private ReviewSnapshot currentSnapshot() {
+        ReviewSnapshot current = snapshot;
+        if (current != null && current.getTakenAt().plusSeconds(cacheTtlSeconds).isAfter(Instant.now())) {
+            return current;
+        }
+        return singleFlight.execute(SingleFlight.key("admin.stats.snapshot"), () -> {
+            ReviewSnapshot loaded = loadSnapshot();
+            snapshot = loaded;
+            return loaded;
+        });
+    }
+
+    private ReviewSnapshot loadSnapshot() {
+        long start = System.currentTimeMillis();
+        LocalDate from = LocalDate.now().minusDays(maxWindowDays - 1L);
+        ReviewSnapshot.Builder builder = new ReviewSnapshot.Builder(from);
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(
+                "SELECT user_id, cafe_id, rating, created_at FROM reviews WHERE created_at >= ?",
+                (RowCallbackHandler) rs -> builder.add(rs.getLong("user_id"), rs.getInt("cafe_id"),
+                        rs.getDouble("rating"), rs.getTimestamp("created_at").toLocalDateTime().toLocalDate()),
+                Timestamp.valueOf(from.atStartOfDay())));
+        ReviewSnapshot loaded = builder.build();
+        log.info("Loaded review snapshot of {} rows in {} ms", loaded.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    private ReviewStats compute(ReviewSnapshot snapshot, int days, int limit) {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1L);
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        AtomicIntegerArray userCounts = new AtomicIntegerArray(snapshot.userIds.length);
+        ReviewAggregation.Partial totals = pool.invoke(
+                new ReviewAggregation(snapshot, (int) from.toEpochDay(), days, pool.getParallelism(), userCounts));
+
+        Map<String, Long> reviewsPerDay = new LinkedHashMap<>();
+        for (int day = 0; day < days; day++) {
+            reviewsPerDay.put(from.plusDays(day).toString(), totals.perDay[day]);
+        }
+        Map<String, Long> ratingDistribution = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < HALF_STAR_LABELS.length; bucket++) {
+            ratingDistribution.put(HALF_STAR_LABELS[bucket], totals.halfStars[bucket]);
+        }
+
+        List<ReviewStats.CafeVelocity> topCafes = new ArrayList<>();
+        for (int index : topIndexes(totals.perCafe.length, i -> totals.perCafe[i], limit)) {
+            int cafeId = snapshot.cafeIds[index];
+            String name = cafeStore.get(cafeId).map(cafe -> cafe.getName()).orElse(null);
+            topCafes.add(new ReviewStats.CafeVelocity(cafeId, name, totals.perCafe[index],
+                    (double) totals.perCafe[index] / days));
+        }
+
+        int[] topUsers = topIndexes(userCounts.length(), userCounts::get, limit);
+        List<Long> topUserIds = new ArrayList<>();
+        for (int index : topUsers) {
+            topUserIds.add(snapshot.userIds[index]);
+        }
+        Map<Long, String> usernames = new HashMap<>();
+        for (User user : userRepository.findAllById(topUserIds)) {
+            usernames.put(user.getId(), user.getUsername());
+        }
+        List<ReviewStats.TopReviewer> topReviewers = new ArrayList<>();
+        for (int index : topUsers) {
+            long userId = snapshot.userIds[index];
+            topReviewers.add(new ReviewStats.TopReviewer(userId, usernames.get(userId), userCounts.get(index)));
+        }
+
+        return new ReviewStats(days, from, to, totals.total, reviewsPerDay, ratingDistribution,
+                topCafes, topReviewers, snapshot.getTakenAt());
+    }
+
+    // Indexes of the largest non-zero counts, largest first, using a bounded min-heap
+    private static int[] topIndexes(int length, IntUnaryOperator count, int limit) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(
+                Comparator.comparingInt((Integer i) -> count.applyAsInt(i)).thenComparing(Comparator.reverseOrder()));
+        for (int i = 0; i < length; i++) {
+            if (count.applyAsInt(i) == 0) {
+                continue;
+            }
+            heap.offer(i);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package com.csci201.project.config;
+
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Loads the dev sample data after the Flyway migrations. Kept out of Flyway so the schema
+ * history does not depend on whether the dev profile was ever active; the script skips rows
+ * that already exist, so it runs on every start.
+ */
+@Configuration
+@Profile("dev")
+public class DevSeedData {
+
+    // Beans that use the database wait for every script initializer, so they see the seeded rows
+    @Bean
+    @DependsOn("flywayInitializer")
+    public DataSourceScriptDatabaseInitializer devSeedDataInitializer(DataSource dataSource) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setDataLocations(List.of("classpath:db/seed/dev_seed_data.sql"));
+        settings.setMode(DatabaseInitializationMode.ALWAYS);
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings);
+    }
+}
@@ -0,0 +1,99 @@
+package com.csci201.project.config;
+
+import com.csci201.project.analytics.ReviewStats;
+import com.csci201.project.dto.CafeCard;
+import com.csci201.project.dto.CafeMarker;
+import com.csci201.project.dto.CafeRequest;
+import com.csci201.project.dto.JwtResponse;
+import com.csci201.project.dto.LoginRequest;
+import com.csci201.project.dto.RegisterRequest;
+import com.csci201.project.dto.UserDTO;
+import com.csci201.project.event.CafeCreatedEvent;
+import com.csci201.project.event.CafeSummaryUpdatedEvent;
+import com.csci201.project.event.FriendAddedEvent;
+import com.csci201.project.event.FriendRemovedEvent;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.event.UserRegisteredEvent;
+import com.csci201.project.event.UsernameChangedEvent;
+import com.csci201.project.store.DuplicateCandidate;
+import com.csci201.project.util.UserTrie;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Reflection, resource and proxy hints that Spring's AOT processing cannot infer on its own,
+ * needed by the native image (and harmless on the JVM).
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    // jjwt loads its implementation classes by name from the api jar
+    private static final String[] JJWT_CLASSES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String className : JJWT_CLASSES) {
+            hints.reflection().registerTypeIfPresent(classLoader, className,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        // Types Jackson (de)serializes that hide behind ResponseEntity<?> or Map responses
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                UserDTO.class, JwtResponse.class, LoginRequest.class, RegisterRequest.class,
+                CafeRequest.class, UserTrie.UserTrieResult.class, ReviewStats.class, DuplicateCandidate.class,
+                CafeMarker.class, CafeCard.class);
+
+        // Event records stored as JSON in the outbox
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                ReviewCreatedEvent.class, ReviewDeletedEvent.class, UserRegisteredEvent.class,
+                UsernameChangedEvent.class, FriendAddedEvent.class, FriendRemovedEvent.class,
+                CafeCreatedEvent.class, CafeSummaryUpdatedEvent.class);
+
+        // Dev seed script run by DevSeedData
+        hints.resources().registerPattern("db/seed/*.sql");
+
+        // JDK proxies built by CountingDataSourcePostProcessor
+        hints.proxies().registerJdkProxy(DataSource.class);
+        hints.proxies().registerJdkProxy(DataSource.class, Closeable.class);
+        hints.proxies().registerJdkProxy(Connection.class);
+        hints.proxies().registerJdkProxy(Statement.class);
+        hints.proxies().registerJdkProxy(PreparedStatement.class);
+        hints.proxies().registerJdkProxy(CallableStatement.class);
+        hints.proxies().registerJdkProxy(ResultSet.class);
+    }
+}
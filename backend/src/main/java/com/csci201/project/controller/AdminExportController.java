@@ -0,0 +1,182 @@
+package com.csci201.project.controller;
+
+import com.csci201.project.metrics.QueryBudget;
+import com.csci201.project.util.StreamingJdbc;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export of the reviews and cafes tables as newline-delimited JSON, one row per line.
+ * Rows are read through a forward-only cursor and written to the response as they arrive,
+ * so memory use does not depend on table size. Results are ordered by id; pass the last id
+ * seen as sinceId to resume an interrupted export.
+ */
+@RestController
+@RequestMapping("/api/admin/export")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminExportController.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    private JdbcTemplate streamingJdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        streamingJdbcTemplate = StreamingJdbc.template(dataSource, datasourceUrl);
+
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Export reviews, optionally only those created at or after since and/or with an id above sinceId
+     */
+    @GetMapping("/reviews")
+    @QueryBudget(1)
+    public void exportReviews(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Long sinceId,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, user_id, cafe_id, rating, comment, created_at FROM reviews WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (since != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(since));
+        }
+        if (sinceId != null) {
+            sql.append(" AND id > ?");
+            args.add(sinceId);
+        }
+        sql.append(" ORDER BY id");
+
+        stream(response, "reviews", gzip, sql.toString(), args, (rs, json) -> {
+            json.writeNumberField("id", rs.getLong("id"));
+            json.writeNumberField("userId", rs.getLong("user_id"));
+            json.writeNumberField("cafeId", rs.getInt("cafe_id"));
+            json.writeNumberField("rating", rs.getDouble("rating"));
+            json.writeStringField("comment", rs.getString("comment"));
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            json.writeStringField("createdAt", createdAt != null ? createdAt.toLocalDateTime().toString() : null);
+        });
+    }
+
+    /**
+     * Export cafes, optionally only those with an id above sinceId (cafes carry no timestamp)
+     */
+    @GetMapping("/cafes")
+    @QueryBudget(1)
+    public void exportCafes(
+            @RequestParam(required = false) Integer sinceId,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        String sql = "SELECT cafe_id, name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary "
+                + "FROM cafes WHERE cafe_id > ? ORDER BY cafe_id";
+        List<Object> args = List.of(sinceId != null ? sinceId : 0);
+
+        stream(response, "cafes", gzip, sql, args, (rs, json) -> {
+            json.writeNumberField("cafeId", rs.getInt("cafe_id"));
+            json.writeStringField("name", rs.getString("name"));
+            json.writeStringField("address", rs.getString("address"));
+            json.writeNumberField("latitude", rs.getDouble("latitude"));
+            json.writeNumberField("longitude", rs.getDouble("longitude"));
+            writeNullableDouble(json, "price", rs, "price");
+            json.writeNumberField("userId", rs.getLong("user_id"));
+            // NULL until the cafe has a review; kept distinct from a real 0 rating
+            writeNullableDouble(json, "overallRating", rs, "overall_rating");
+            json.writeStringField("tags", rs.getString("tags"));
+            json.writeStringField("aiSummary", rs.getString("ai_summary"));
+        });
+    }
+
+    private static void writeNullableDouble(JsonGenerator json, String field, ResultSet rs, String column)
+            throws SQLException, IOException {
+        double value = rs.getDouble(column);
+        if (rs.wasNull()) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs, JsonGenerator json) throws SQLException, IOException;
+    }
+
+    private void stream(HttpServletResponse response, String table, boolean gzip, String sql,
+                        List<Object> args, RowWriter rowWriter) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 64 * 1024) : response.getOutputStream();
+        long start = System.currentTimeMillis();
+        long[] rows = {0};
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            // Rows are separated by our own newlines, not Jackson's default space
+            json.setRootValueSeparator(null);
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                        try {
+                            json.writeStartObject();
+                            rowWriter.write(rs, json);
+                            json.writeEndObject();
+                            json.writeRaw('\n');
+                        } catch (IOException e) {
+                            // Usually the client went away; abandon the cursor
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }, args.toArray()));
+        } catch (UncheckedIOException e) {
+            log.info("Export of {} aborted after {} rows: {}", table, rows[0], e.getCause().getMessage());
+            return;
+        }
+        log.info("Exported {} {} rows in {} ms", rows[0], table, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,48 @@
+package com.csci201.project.controller;
+
+import com.csci201.project.analytics.ReviewStatsService;
+import com.csci201.project.metrics.QueryBudget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminStatsController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ReviewStatsService reviewStatsService;
+
+    /**
+     * Review volume and rating trends over the last {days} days: reviews per day, rating
+     * distribution, top cafes by review velocity and top reviewers
+     */
+    @GetMapping
+    @QueryBudget(2)
+    public ResponseEntity<?> getStats(@RequestParam(defaultValue = "30") int days,
+                                      @RequestParam(defaultValue = "10") int limit) {
+        if (days < 1 || days > reviewStatsService.getMaxWindowDays()) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "days must be between 1 and " + reviewStatsService.getMaxWindowDays()));
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(createErrorResponse("limit must be between 1 and " + MAX_LIMIT));
+        }
+        return ResponseEntity.ok(reviewStatsService.getStats(days, limit));
+    }
+
+    // Helper method
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", message);
+        return response;
+    }
+}
@@ -3,22 +3,34 @@ package com.csci201.project.controller;
 import com.csci201.project.dto.JwtResponse;
 import com.csci201.project.dto.LoginRequest;
 import com.csci201.project.dto.RegisterRequest;
+import com.csci201.project.event.UserRegisteredEvent;
+import com.csci201.project.metrics.JdbcAccounting;
+import com.csci201.project.metrics.QueryBudget;
 import com.csci201.project.model.User;
 import com.csci201.project.repository.UserRepository;
+import com.csci201.project.security.AuthThrottle;
+import com.csci201.project.security.PasswordHashingExecutor;
+import com.csci201.project.util.AvailabilityIndex;
 import com.csci201.project.util.JwtUtils;
-import com.csci201.project.util.UserTrie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @CrossOrigin(origins = "http://localhost:3000")
 @RestController
@@ -26,29 +38,57 @@ import java.util.Map;
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private UserDetailsService userDetailsService;
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private JwtUtils jwtUtils;
 
     @Autowired
-    private JwtUtils jwtUtils;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
-    private UserTrie userTrie;
+    private AuthThrottle authThrottle;
 
+    // Boot's task executor; runs the database part of registration once the password is hashed
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor ioExecutor;
+
+    // Retry-After sent when the hashing queue is full
+    private static final long HASHING_RETRY_AFTER_SECONDS = 1;
+
+    // Up to two existence checks the availability index cannot rule out, then the user and its outbox row
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+    @QueryBudget(4)
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterRequest registerRequest,
+                                                             HttpServletRequest request) {
+        long retryAfter = authThrottle.checkIp(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(tooManyRequests(retryAfter));
+        }
+
         Map<String, String> errors = new HashMap<>();
 
-        if (userRepository.existsByUsername(registerRequest.getUsername())) {
+        // Only hit the database when the in-memory filter cannot rule the value out
+        if (availabilityIndex.mightContainUsername(registerRequest.getUsername())
+                && userRepository.existsByUsername(registerRequest.getUsername())) {
             errors.put("username", "Username is already taken!");
         }
 
-        if (userRepository.existsByEmail(registerRequest.getEmail())) {
+        if (availabilityIndex.mightContainEmail(registerRequest.getEmail())
+                && userRepository.existsByEmail(registerRequest.getEmail())) {
             errors.put("email", "Email is already in use!");
         }
 
@@ -61,42 +101,96 @@ public class AuthController {
         }
 
         if (!errors.isEmpty()) {
-            return ResponseEntity.badRequest().body(errors);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errors));
         }
 
-        User user = new User(
-                registerRequest.getUsername(),
-                registerRequest.getEmail(),
-                passwordEncoder.encode(registerRequest.getPassword())
-        );
-
-        userRepository.save(user);
-        userTrie.insert(user.getId(), user.getUsername(), user.getEmail());
-
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "User registered successfully!");
-        return ResponseEntity.ok(response);
+        // Captured here, on the request thread, so the inserts still count toward this request's budget
+        Executor continuation = JdbcAccounting.propagating(ioExecutor);
+        try {
+            // Only the hash runs on the hashing pool; the inserts continue on an I/O thread so a slow
+            // database cannot hold hashing workers
+            return passwordHashingExecutor.encode(password).<ResponseEntity<?>>thenApplyAsync(encodedPassword -> {
+                User user = new User(
+                        registerRequest.getUsername(),
+                        registerRequest.getEmail(),
+                        encodedPassword
+                );
+
+                try {
+                    // Updates the search trie and availability index after commit (and journals the change);
+                    // the outbox row for other nodes is written in the same transaction as the user
+                    transactionTemplate.executeWithoutResult(status -> {
+                        userRepository.save(user);
+                        eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getUsername(),
+                                user.getEmail()));
+                    });
+                } catch (DataIntegrityViolationException e) {
+                    // Lost a race with a concurrent registration; the unique constraints caught it
+                    Map<String, String> conflict = new HashMap<>();
+                    conflict.put("general", "Username or email is already in use!");
+                    return ResponseEntity.badRequest().body(conflict);
+                }
+
+                Map<String, String> response = new HashMap<>();
+                response.put("message", "User registered successfully!");
+                return ResponseEntity.ok(response);
+            }, continuation);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(HASHING_RETRY_AFTER_SECONDS));
+        }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    @QueryBudget(1)
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                                 HttpServletRequest request) {
+        long retryAfter = Math.max(
+                authThrottle.checkIp(request.getRemoteAddr()),
+                authThrottle.checkUsername(loginRequest.getUsername())
+        );
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(tooManyRequests(retryAfter));
+        }
+
+        // The user lookup stays on the request thread; only the BCrypt comparison goes to the hashing pool
+        String storedHash;
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getUsername(),
-                            loginRequest.getPassword()
-                    )
-            );
+            storedHash = userDetailsService.loadUserByUsername(loginRequest.getUsername()).getPassword();
+        } catch (UsernameNotFoundException e) {
+            storedHash = null;
+        }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = jwtUtils.generateToken(loginRequest.getUsername());
+        try {
+            return passwordHashingExecutor.matches(loginRequest.getPassword(), storedHash)
+                    .<ResponseEntity<?>>thenApply(matches -> {
+                        if (!matches) {
+                            Map<String, String> error = new HashMap<>();
+                            error.put("error", "Invalid username or password!");
+                            return ResponseEntity.badRequest().body(error);
+                        }
+                        String jwt = jwtUtils.generateToken(loginRequest.getUsername());
+                        return ResponseEntity.ok(new JwtResponse(jwt, loginRequest.getUsername()));
+                    });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooManyRequests(HASHING_RETRY_AFTER_SECONDS));
+        }
+    }
 
-            return ResponseEntity.ok(new JwtResponse(jwt, loginRequest.getUsername()));
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Invalid username or password!");
-            return ResponseEntity.badRequest().body(error);
+    /**
+     * Live username/email availability check for the signup form, answered from memory
+     */
+    @GetMapping("/availability")
+    @QueryBudget(0)
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        Map<String, Object> response = new HashMap<>();
+        if (username != null && !username.isBlank()) {
+            response.put("usernameAvailable", !availabilityIndex.isUsernameTaken(username));
+        }
+        if (email != null && !email.isBlank()) {
+            response.put("emailAvailable", !availabilityIndex.isEmailTaken(email));
         }
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/test")
@@ -104,6 +198,14 @@ public class AuthController {
         return ResponseEntity.ok("Authentication endpoint is working!");
     }
 
+    private ResponseEntity<?> tooManyRequests(long retryAfterSeconds) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Too many requests. Please try again later.");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(error);
+    }
+
     private boolean isStrongPassword(String password) {
         if (password == null) {
             return false;
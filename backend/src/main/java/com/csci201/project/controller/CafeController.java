@@ -1,103 +1,273 @@
 package com.csci201.project.controller;
 
+import com.csci201.project.dto.CafeDTO;
+import com.csci201.project.dto.CafeRequest;
+import com.csci201.project.event.CafeCreatedEvent;
+import com.csci201.project.metrics.QueryBudget;
 import com.csci201.project.model.Cafe;
+import com.csci201.project.model.User;
+import com.csci201.project.recommend.RecommendationService;
 import com.csci201.project.repository.CafeRepository;
-import com.csci201.project.repository.ReviewRepository;
+import com.csci201.project.repository.UserRepository;
+import com.csci201.project.store.CafeSort;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.store.CafeView;
+import com.csci201.project.store.DuplicateCandidate;
+import com.csci201.project.store.HotRanking;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/cafes")
 @CrossOrigin(origins = "http://localhost:3000") // Allow frontend
 public class CafeController {
 
+    private static final double TRENDING_MIN_RATING = 4.0;
+    private static final int TRENDING_LIMIT = 10;
+    private static final int HOT_DEFAULT_LIMIT = 20;
+    private static final int HOT_MAX_LIMIT = 100;
+    private static final int RECOMMENDED_DEFAULT_LIMIT = 10;
+    private static final int RECOMMENDED_MAX_LIMIT = 50;
+
+    private final CafeStore cafeStore;
+    private final HotRanking hotRanking;
+    private final RecommendationService recommendationService;
     private final CafeRepository cafeRepository;
-    private final ReviewRepository reviewRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final double duplicateRadiusMeters;
+    private final double duplicateMinSimilarity;
+
+    // Check-then-insert holds the stripes of every grid cell near the new cafe, so two near-identical
+    // submissions on this node cannot both pass the check while creations elsewhere run in parallel.
+    // Other nodes do not see these locks, so a near-duplicate sent to another node at the same time can still get in
+    private static final int CREATE_LOCK_STRIPES = 64;
+    private final ReentrantLock[] createLocks = Stream.generate(ReentrantLock::new)
+            .limit(CREATE_LOCK_STRIPES).toArray(ReentrantLock[]::new);
 
-    public CafeController(CafeRepository cafeRepository, ReviewRepository reviewRepository) {
+    public CafeController(CafeStore cafeStore, HotRanking hotRanking, RecommendationService recommendationService,
+                          CafeRepository cafeRepository, UserRepository userRepository, TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                          @Value("${app.cafes.duplicate-radius-meters:30}") double duplicateRadiusMeters,
+                          @Value("${app.cafes.duplicate-min-similarity:0.45}") double duplicateMinSimilarity) {
+        this.cafeStore = cafeStore;
+        this.hotRanking = hotRanking;
+        this.recommendationService = recommendationService;
         this.cafeRepository = cafeRepository;
-        this.reviewRepository = reviewRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.duplicateRadiusMeters = duplicateRadiusMeters;
+        this.duplicateMinSimilarity = duplicateMinSimilarity;
     }
 
     /**
      * Get all cafes with average rating calculated from reviews.
-     * The overallRating is dynamically calculated from user reviews.
+     * Optionally filtered by minimum rating, maximum price and tag, and sorted by rating, price or name.
+     * view=marker or view=card returns a smaller representation (see CafeView); the default is full.
+     * Served from the in-memory CafeStore, so no queries run.
      */
     @GetMapping
-    public List<Cafe> getAllCafes() {
-        List<Cafe> allCafes = cafeRepository.findAll();
-
-        // Calculate average rating from reviews for each cafe
-        for (Cafe cafe : allCafes) {
-            Double avgRating = reviewRepository.getAverageRatingByCafeId(cafe.getCafeId());
-            if (avgRating != null) {
-                // Update the overallRating with the calculated average from reviews
-                cafe.setOverallRating(avgRating);
-            } else {
-                // If no reviews, set to 0
-                cafe.setOverallRating(0.0);
-            }
-        }
-
-        return allCafes;
+    @QueryBudget(0)
+    public List<?> getAllCafes(@RequestParam(required = false) Double minRating,
+                               @RequestParam(required = false) Double maxPrice,
+                               @RequestParam(required = false) String tag,
+                               @RequestParam(required = false) String sort,
+                               @RequestParam(required = false) Integer limit,
+                               @RequestParam(required = false) String view) {
+        return cafeStore.find(minRating, maxPrice, tag, parseSort(sort), limit, parseView(view));
     }
 
     /**
      * Get trending cafes with average rating calculated from reviews.
-     * Only returns cafes with rating >= 4.0, sorted by rating descending.
-     * The overallRating is dynamically calculated from the average of all user reviews.
+     * Only returns cafes with rating >= 4.0, by default sorted by Bayesian average descending
+     * so a single 5-star review does not outrank hundreds of good ones.
      */
     @GetMapping("/trending")
-    public List<Cafe> getTrendingCafes() {
-        List<Cafe> allCafes = cafeRepository.findAll();
+    @QueryBudget(0)
+    public List<?> getTrendingCafes(@RequestParam(required = false) String sort,
+                                    @RequestParam(required = false) String view) {
+        CafeSort order = parseSort(sort);
+        return cafeStore.find(TRENDING_MIN_RATING, null, null, order != null ? order : CafeSort.BAYESIAN,
+                TRENDING_LIMIT, parseView(view));
+    }
 
-        // Compute average ratings in parallel to reduce latency with many cafes
-        ExecutorService executor = Executors.newFixedThreadPool(8);
-        try {
-            List<CompletableFuture<Cafe>> futures = allCafes.stream()
-                    .map(cafe -> CompletableFuture.supplyAsync(() -> {
-                        Double avgRating = reviewRepository.getAverageRatingByCafeId(cafe.getCafeId());
-                        cafe.setOverallRating(avgRating != null ? avgRating : 0.0);
-                        return cafe;
-                    }, executor))
-                    .collect(Collectors.toList());
-
-            List<Cafe> cafesWithRatings = futures.stream()
-                    .map(CompletableFuture::join)
-                    .collect(Collectors.toList());
-
-            // Filter cafés with rating >= 4.0 and sort by rating descending
-            return cafesWithRatings.stream()
-                    .filter(cafe -> cafe.getOverallRating() >= 4.0)
-                    .sorted((a, b) -> Double.compare(b.getOverallRating(), a.getOverallRating()))
-                    .limit(10)
-                    .collect(Collectors.toList());
-        } finally {
-            executor.shutdown();
+    /**
+     * Get the cafes with the most recent, highly rated reviews (see HotRanking), hottest first.
+     * With latitude, longitude and radiusKm only cafes within the radius are returned.
+     */
+    @GetMapping("/hot")
+    @QueryBudget(0)
+    public List<HotRanking.HotCafe> getHotCafes(@RequestParam(required = false) Double latitude,
+                                                @RequestParam(required = false) Double longitude,
+                                                @RequestParam(required = false) Double radiusKm,
+                                                @RequestParam(required = false) Integer limit) {
+        boolean anyGeo = latitude != null || longitude != null || radiusKm != null;
+        boolean allGeo = latitude != null && longitude != null && radiusKm != null;
+        if (anyGeo && !allGeo) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "latitude, longitude and radiusKm must be given together");
+        }
+        if (radiusKm != null && radiusKm <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radiusKm must be positive");
         }
+        int size = limit == null ? HOT_DEFAULT_LIMIT : Math.max(1, Math.min(limit, HOT_MAX_LIMIT));
+        return hotRanking.top(size, latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Cafes the current user has not reviewed yet, best predicted rating first, from cafes similar
+     * to the ones they rated (see RecommendationService). Topped up with well-reviewed cafes.
+     */
+    @GetMapping("/recommended")
+    @PreAuthorize("hasRole('USER')")
+    @QueryBudget(1)
+    public List<RecommendationService.RecommendedCafe> getRecommendedCafes(
+            @RequestParam(required = false) Integer limit) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        int size = limit == null ? RECOMMENDED_DEFAULT_LIMIT : Math.max(1, Math.min(limit, RECOMMENDED_MAX_LIMIT));
+        return recommendationService.recommend(username, size);
     }
 
     /**
-     * Get a single cafe by ID with average rating calculated from reviews
+     * Get a single cafe by ID with average rating and rating histogram calculated from reviews
      */
     @GetMapping("/{cafeId}")
-    public Cafe getCafeById(@PathVariable Integer cafeId) {
-        Cafe cafe = cafeRepository.findById(cafeId)
+    @QueryBudget(0)
+    public CafeDTO getCafeById(@PathVariable Integer cafeId) {
+        return cafeStore.getDetail(cafeId)
                 .orElseThrow(() -> new RuntimeException("Cafe not found"));
+    }
+
+    /**
+     * Add a cafe owned by the current user. Unless force is true, existing cafes within about 30 m
+     * with a similar name are returned with a 409 instead of inserting, so the submitter can pick one.
+     * The check is atomic only within this node; see createLocks.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    @QueryBudget(3)
+    public ResponseEntity<?> createCafe(@Valid @RequestBody CafeRequest request,
+                                        @RequestParam(defaultValue = "false") boolean force) {
+        String tags = request.getTags() == null ? null : request.getTags().stream()
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .collect(Collectors.joining(","));
+        String error = validate(request, tags);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(createErrorResponse(error));
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User owner = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Calculate average rating from reviews
-        Double avgRating = reviewRepository.getAverageRatingByCafeId(cafe.getCafeId());
-        if (avgRating != null) {
-            cafe.setOverallRating(avgRating);
-        } else {
-            cafe.setOverallRating(0.0);
+        int[] stripes = createLockStripes(request.getLatitude(), request.getLongitude());
+        for (int stripe : stripes) {
+            createLocks[stripe].lock();
         }
+        try {
+            if (!force) {
+                // Grid probe in the in-memory store; no query runs for the check
+                List<DuplicateCandidate> candidates = cafeStore.findNearDuplicates(request.getName(),
+                        request.getLatitude(), request.getLongitude(), duplicateRadiusMeters, duplicateMinSimilarity);
+                if (!candidates.isEmpty()) {
+                    Map<String, Object> response = createErrorResponse("A cafe with a similar name already exists nearby");
+                    response.put("candidates", candidates);
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+                }
+            }
+
+            Cafe cafe = new Cafe(request.getName().trim(), request.getAddress().trim(), request.getLatitude(),
+                    request.getLongitude(), request.getPrice(), owner.getId(), tags == null || tags.isEmpty() ? null : tags,
+                    request.getAiSummary());
+            // The store (and the outbox, for other nodes) picks the cafe up from the event on commit
+            transactionTemplate.executeWithoutResult(status -> {
+                cafeRepository.save(cafe);
+                eventPublisher.publishEvent(new CafeCreatedEvent(cafe.getCafeId(), cafe.getName(), cafe.getAddress(),
+                        cafe.getLatitude(), cafe.getLongitude(), cafe.getPrice(), cafe.getUserId(), cafe.getTags(),
+                        cafe.getAiSummary()));
+            });
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(cafeStore.get(cafe.getCafeId())
+                    .orElseThrow(() -> new RuntimeException("Cafe not found")));
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                createLocks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    // Taken in ascending order, so two creations never wait on each other's stripes in a cycle
+    private int[] createLockStripes(double latitude, double longitude) {
+        return Arrays.stream(cafeStore.cellsNear(latitude, longitude, duplicateRadiusMeters))
+                .mapToInt(cell -> Math.floorMod(Long.hashCode(cell * 0x9E3779B97F4A7C15L), CREATE_LOCK_STRIPES))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    // Lengths match the cafes table columns
+    private String validate(CafeRequest request, String tags) {
+        if (request.getName().trim().length() > 100) {
+            return "Name is too long (max 100 characters)";
+        }
+        if (request.getAddress().trim().length() > 200) {
+            return "Address is too long (max 200 characters)";
+        }
+        if (request.getLatitude() < -90 || request.getLatitude() > 90
+                || request.getLongitude() < -180 || request.getLongitude() > 180) {
+            return "Latitude or longitude is out of range";
+        }
+        if (request.getPrice() < 0) {
+            return "Price cannot be negative";
+        }
+        if (tags != null && tags.length() > 200) {
+            return "Too many tags (max 200 characters)";
+        }
+        if (request.getAiSummary() != null && request.getAiSummary().length() > 500) {
+            return "Summary is too long (max 500 characters)";
+        }
+        return null;
+    }
+
+    private CafeSort parseSort(String sort) {
+        try {
+            return CafeSort.fromParam(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private CafeView parseView(String view) {
+        try {
+            return CafeView.fromParam(view);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 
-        return cafe;
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("error", message);
+        return response;
     }
 }
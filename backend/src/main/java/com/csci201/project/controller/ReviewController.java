@@ -1,15 +1,30 @@
 package com.csci201.project.controller;
 
+import com.csci201.project.dto.CafeDTO;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.metrics.QueryBudget;
 import com.csci201.project.model.Cafe;
 import com.csci201.project.model.Review;
 import com.csci201.project.model.User;
 import com.csci201.project.repository.CafeRepository;
 import com.csci201.project.repository.ReviewRepository;
 import com.csci201.project.repository.UserRepository;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.stream.ReviewStreamHub;
+import com.csci201.project.util.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -21,6 +36,8 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "http://localhost:3000")
 public class ReviewController {
 
+    private static final String ALREADY_REVIEWED = "You have already reviewed this cafe. You can only review once.";
+
     @Autowired
     private ReviewRepository reviewRepository;
 
@@ -30,63 +47,136 @@ public class ReviewController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private CafeStore cafeStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReviewStreamHub reviewStreamHub;
+
     /**
      * Get all reviews for a specific cafe
      */
     @GetMapping("/cafe/{cafeId}")
+    @QueryBudget(1)
     public ResponseEntity<?> getReviewsForCafe(@PathVariable Integer cafeId) {
         try {
-            Cafe cafe = cafeRepository.findById(cafeId)
-                    .orElse(null);
+            // Concurrent requests for the same cafe share one set of queries
+            return singleFlight.execute(SingleFlight.key("reviews.byCafe", cafeId),
+                    () -> loadReviewsForCafe(cafeId));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(createErrorResponse("Failed to fetch reviews: " + e.getMessage()));
+        }
+    }
 
-            if (cafe == null) {
-                return ResponseEntity.badRequest().body(createErrorResponse("Cafe not found"));
-            }
+    private ResponseEntity<?> loadReviewsForCafe(Integer cafeId) {
+        // Cafe details and rating totals come from the in-memory store
+        CafeDTO cafe = cafeStore.getDetail(cafeId)
+                .orElse(null);
 
-            List<Review> reviews = reviewRepository.findByCafeCafeId(cafeId);
+        if (cafe == null) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Cafe not found"));
+        }
 
-            // Calculate average rating
-            Double avgRating = reviewRepository.getAverageRatingByCafeId(cafeId);
-            Long reviewCount = reviewRepository.countReviewsByCafeId(cafeId);
+        List<Review> reviews = reviewRepository.findByCafeCafeId(cafeId);
+
+        // Format reviews with user info
+        List<Map<String, Object>> formattedReviews = reviews.stream()
+                .map(review -> {
+                    Map<String, Object> reviewMap = new HashMap<>();
+                    reviewMap.put("id", review.getId());
+                    reviewMap.put("rating", review.getRating());
+                    reviewMap.put("comment", review.getComment());
+                    reviewMap.put("createdAt", review.getCreatedAt());
+                    reviewMap.put("username", review.getUser().getUsername());
+                    reviewMap.put("userId", review.getUser().getId());
+                    return reviewMap;
+                })
+                .collect(Collectors.toList());
 
-            // Format reviews with user info
-            List<Map<String, Object>> formattedReviews = reviews.stream()
+        Map<String, Object> response = new HashMap<>();
+        response.put("reviews", formattedReviews);
+        response.put("averageRating", cafe.getOverallRating());
+        response.put("reviewCount", (long) cafe.getReviewCount());
+        response.put("ratingHistogram", cafe.getRatingHistogram());
+        // HashMap, not Map.of: cafes added without a summary or tags have null fields
+        Map<String, Object> cafeInfo = new HashMap<>();
+        cafeInfo.put("id", cafe.getCafeId());
+        cafeInfo.put("name", cafe.getName());
+        cafeInfo.put("address", cafe.getAddress());
+        cafeInfo.put("price", cafe.getPrice());
+        cafeInfo.put("tags", cafe.getTags());
+        cafeInfo.put("aiSummary", cafe.getAiSummary());
+        response.put("cafe", cafeInfo);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Reviews of a cafe by the current user's friends, newest first, so the detail view can show
+     * them ahead of everyone else's. One indexed join; see ReviewRepository.findFriendReviewsForCafe.
+     */
+    @GetMapping("/cafe/{cafeId}/friends")
+    @PreAuthorize("hasRole('USER')")
+    @QueryBudget(1)
+    public ResponseEntity<?> getFriendReviewsForCafe(@PathVariable Integer cafeId) {
+        if (!cafeStore.contains(cafeId)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("Cafe not found"));
+        }
+        try {
+            String username = SecurityContextHolder.getContext().getAuthentication().getName();
+            List<Map<String, Object>> formattedReviews = reviewRepository.findFriendReviewsForCafe(username, cafeId)
+                    .stream()
                     .map(review -> {
                         Map<String, Object> reviewMap = new HashMap<>();
                         reviewMap.put("id", review.getId());
                         reviewMap.put("rating", review.getRating());
                         reviewMap.put("comment", review.getComment());
                         reviewMap.put("createdAt", review.getCreatedAt());
-                        reviewMap.put("username", review.getUser().getUsername());
-                        reviewMap.put("userId", review.getUser().getId());
+                        reviewMap.put("username", review.getUsername());
+                        reviewMap.put("userId", review.getUserId());
                         return reviewMap;
                     })
-                    .collect(Collectors.toList());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("reviews", formattedReviews);
-            response.put("averageRating", avgRating != null ? avgRating : 0.0);
-            response.put("reviewCount", reviewCount != null ? reviewCount : 0);
-            response.put("cafe", Map.of(
-                    "id", cafe.getCafeId(),
-                    "name", cafe.getName(),
-                    "address", cafe.getAddress(),
-                    "price", cafe.getPrice(),
-                    "tags", cafe.getTags(),
-                    "aiSummary", cafe.getAiSummary()
-            ));
+                    .toList();
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(Map.of("reviews", formattedReviews));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
-                    .body(createErrorResponse("Failed to fetch reviews: " + e.getMessage()));
+                    .body(createErrorResponse("Failed to fetch friends' reviews: " + e.getMessage()));
         }
     }
 
+    /**
+     * Live updates for a cafe's reviews as Server-Sent Events: "review-created" (with the review)
+     * and "review-deleted" (with its id), each carrying the new averageRating and reviewCount
+     */
+    @GetMapping(value = "/cafe/{cafeId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @QueryBudget(0)
+    public SseEmitter streamReviewsForCafe(@PathVariable Integer cafeId) {
+        if (!cafeStore.contains(cafeId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cafe not found");
+        }
+        SseEmitter emitter = reviewStreamHub.subscribe(cafeId);
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open streams, try again later");
+        }
+        return emitter;
+    }
+
     /**
      * Create a new review for a cafe (requires authentication)
      */
     @PostMapping("/cafe/{cafeId}")
+    @QueryBudget(5)
     public ResponseEntity<?> createReview(
             @PathVariable Integer cafeId,
             @RequestBody Map<String, Object> payload) {
@@ -132,13 +222,21 @@ public class ReviewController {
                     .anyMatch(r -> r.getCafe().getCafeId().equals(cafeId));
 
             if (alreadyReviewed) {
-                return ResponseEntity.badRequest()
-                        .body(createErrorResponse("You have already reviewed this cafe. You can only review once."));
+                return ResponseEntity.badRequest().body(createErrorResponse(ALREADY_REVIEWED));
             }
 
-            // Create new review
+            // Create new review; the event's outbox row commits in the same transaction
             Review review = new Review(user, cafe, rating, comment);
-            reviewRepository.save(review);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    reviewRepository.save(review);
+                    eventPublisher.publishEvent(new ReviewCreatedEvent(review.getId(), cafeId, user.getId(),
+                            review.getRating(), review.getCreatedAt()));
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Lost a race with a concurrent review of the same cafe; uk_reviews_user_cafe caught it
+                return ResponseEntity.badRequest().body(createErrorResponse(ALREADY_REVIEWED));
+            }
 
             // Return the created review with user info
             Map<String, Object> reviewResponse = new HashMap<>();
@@ -149,8 +247,8 @@ public class ReviewController {
             reviewResponse.put("username", user.getUsername());
             reviewResponse.put("userId", user.getId());
 
-            // Calculate new average rating
-            Double newAvgRating = reviewRepository.getAverageRatingByCafeId(cafeId);
+            // New average rating, already updated in the store by the event above
+            Double newAvgRating = cafeStore.averageRating(cafeId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -169,6 +267,7 @@ public class ReviewController {
      * Delete a review (only the user who created it can delete)
      */
     @DeleteMapping("/{reviewId}")
+    @QueryBudget(4)
     public ResponseEntity<?> deleteReview(@PathVariable Long reviewId) {
         try {
             String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -189,10 +288,14 @@ public class ReviewController {
             }
 
             Integer cafeId = review.getCafe().getCafeId();
-            reviewRepository.delete(review);
+            transactionTemplate.executeWithoutResult(status -> {
+                reviewRepository.delete(review);
+                eventPublisher.publishEvent(new ReviewDeletedEvent(review.getId(), cafeId, user.getId(),
+                        review.getRating(), review.getCreatedAt()));
+            });
 
-            // Calculate new average rating
-            Double newAvgRating = reviewRepository.getAverageRatingByCafeId(cafeId);
+            // New average rating, null once the cafe has no reviews left
+            Double newAvgRating = cafeStore.reviewCount(cafeId) > 0 ? cafeStore.averageRating(cafeId) : null;
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -210,6 +313,7 @@ public class ReviewController {
      * Get all reviews by the current user
      */
     @GetMapping("/my-reviews")
+    @QueryBudget(2)
     public ResponseEntity<?> getMyReviews() {
         try {
             String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -1,24 +1,29 @@
 package com.csci201.project.controller;
 
 import com.csci201.project.dto.UserDTO;
+import com.csci201.project.event.FriendAddedEvent;
+import com.csci201.project.event.FriendRemovedEvent;
+import com.csci201.project.event.UsernameChangedEvent;
+import com.csci201.project.metrics.QueryBudget;
 import com.csci201.project.model.Review;
 import com.csci201.project.model.User;
 import com.csci201.project.repository.ReviewRepository;
 import com.csci201.project.repository.UserRepository;
+import com.csci201.project.util.AvailabilityIndex;
 import com.csci201.project.util.JwtUtils;
 import com.csci201.project.util.UserTrie;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -38,16 +43,24 @@ public class UserController {
     @Autowired
     private UserTrie userTrie;
 
-    @PostConstruct
-    public void preloadTrie() {
-        userRepository.findAll().forEach(u -> userTrie.insert(u.getId(), u.getUsername(), u.getEmail()));
-    }
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     /**
      * Search for users by username (case-insensitive, partial match)
      * Returns UserDTO to avoid exposing passwords
      */
     @GetMapping("/search")
+    @QueryBudget(0)
     public ResponseEntity<?> searchUsers(@RequestParam String query) {
         if (query == null || query.trim().isEmpty()) {
             return ResponseEntity.badRequest().body(createErrorResponse("Search query cannot be empty"));
@@ -55,7 +68,10 @@ public class UserController {
 
         String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
 
-        List<UserDTO> results = userTrie.searchByPrefix(query.trim()).stream()
+        List<UserTrie.UserTrieResult> matches = meterRegistry.timer("usertrie.search")
+                .record(() -> userTrie.searchByPrefix(query.trim()));
+
+        List<UserDTO> results = matches.stream()
                 .filter(u -> !u.getUsername().equals(currentUsername)) // Exclude current user
                 .map(u -> new UserDTO(u.getId(), u.getUsername(), u.getEmail()))
                 .collect(Collectors.toList());
@@ -74,6 +90,7 @@ public class UserController {
      * Add a friend to the current user's friends list
      */
     @PostMapping("/add-friend/{friendId}")
+    @QueryBudget(5)
     public ResponseEntity<?> addFriend(@PathVariable Long friendId) {
         try {
             // Ensure request is authenticated
@@ -108,7 +125,10 @@ public class UserController {
             }
 
             currentUser.addFriend(friend);
-            userRepository.save(currentUser);
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(currentUser);
+                eventPublisher.publishEvent(new FriendAddedEvent(currentUser.getId(), friend.getId()));
+            });
 
             return ResponseEntity.ok(createSuccessResponse("Successfully added " + friend.getUsername() + " as a friend!"));
         } catch (Exception e) {
@@ -120,6 +140,7 @@ public class UserController {
      * Remove a friend from the current user's friends list
      */
     @DeleteMapping("/remove-friend/{friendId}")
+    @QueryBudget(5)
     public ResponseEntity<?> removeFriend(@PathVariable Long friendId) {
         try {
             var auth = SecurityContextHolder.getContext().getAuthentication();
@@ -147,7 +168,10 @@ public class UserController {
             }
 
             currentUser.removeFriend(friend);
-            userRepository.save(currentUser);
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(currentUser);
+                eventPublisher.publishEvent(new FriendRemovedEvent(currentUser.getId(), friend.getId()));
+            });
 
             return ResponseEntity.ok(createSuccessResponse("Successfully removed " + friend.getUsername() + " from friends"));
         } catch (Exception e) {
@@ -159,6 +183,7 @@ public class UserController {
      * Get all friends of the current user
      */
     @GetMapping("/friends")
+    @QueryBudget(3)
     public ResponseEntity<?> getFriends() {
         try {
             var auth = SecurityContextHolder.getContext().getAuthentication();
@@ -174,27 +199,25 @@ public class UserController {
                 return ResponseEntity.status(401).body(createErrorResponse("Current user not found. Please log in again."));
             }
 
-            // Fetch per-friend review counts in parallel to reduce latency
-            ExecutorService executor = Executors.newFixedThreadPool(10);
-            try {
-                List<CompletableFuture<UserDTO>> futures = currentUser.getFriends().stream()
-                        .map(friend -> CompletableFuture.supplyAsync(() -> {
-                            long reviewCount = reviewRepository.countByUserId(friend.getId());
-                            return new UserDTO(friend.getId(), friend.getUsername(), friend.getEmail(), reviewCount);
-                        }, executor))
-                        .collect(Collectors.toList());
-
-                List<UserDTO> friends = futures.stream()
-                        .map(CompletableFuture::join)
-                        .collect(Collectors.toList());
-
-                return ResponseEntity.ok(Map.of(
-                    "friends", friends,
-                    "count", friends.size()
-                ));
-            } finally {
-                executor.shutdown();
+            // One grouped count for all friends rather than a query per friend
+            Set<User> friendSet = currentUser.getFriends();
+            Map<Long, Long> reviewCounts = new HashMap<>();
+            if (!friendSet.isEmpty()) {
+                for (Object[] row : reviewRepository.countByUserIds(
+                        friendSet.stream().map(User::getId).collect(Collectors.toList()))) {
+                    reviewCounts.put((Long) row[0], (Long) row[1]);
+                }
             }
+
+            List<UserDTO> friends = friendSet.stream()
+                    .map(friend -> new UserDTO(friend.getId(), friend.getUsername(), friend.getEmail(),
+                            reviewCounts.getOrDefault(friend.getId(), 0L)))
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(Map.of(
+                "friends", friends,
+                "count", friends.size()
+            ));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body(createErrorResponse("Failed to get friends: " + e.getMessage()));
         }
@@ -204,6 +227,7 @@ public class UserController {
      * Update current user's profile (username)
      */
     @PutMapping("/profile")
+    @QueryBudget(4)
     public ResponseEntity<?> updateProfile(@RequestBody Map<String, String> payload) {
         try {
             String newUsername = payload.get("username");
@@ -226,17 +250,18 @@ public class UserController {
             }
 
             // Check if username is already taken
-            if (userRepository.existsByUsername(newUsername)) {
+            if (availabilityIndex.mightContainUsername(newUsername) && userRepository.existsByUsername(newUsername)) {
                 return ResponseEntity.badRequest().body(createErrorResponse("Username '" + newUsername + "' is already taken"));
             }
 
             String oldUsername = currentUser.getUsername();
 
             currentUser.setUsername(newUsername);
-            userRepository.save(currentUser);
-
-            userTrie.remove(oldUsername);
-            userTrie.insert(currentUser.getId(), newUsername, currentUser.getEmail());
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.save(currentUser);
+                eventPublisher.publishEvent(new UsernameChangedEvent(currentUser.getId(), oldUsername, newUsername,
+                        currentUser.getEmail()));
+            });
 
             // Generate a new JWT token with the new username
             String newToken = jwtUtils.generateToken(newUsername);
@@ -256,6 +281,7 @@ public class UserController {
      * Get current user's profile info
      */
     @GetMapping("/me")
+    @QueryBudget(1)
     public ResponseEntity<?> getCurrentUserProfile() {
         try {
             String currentUsername = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -273,6 +299,7 @@ public class UserController {
      * Used for viewing friend profiles
      */
     @GetMapping("/{userId}/profile")
+    @QueryBudget(2)
     public ResponseEntity<?> getUserProfile(@PathVariable Long userId) {
         try {
             User user = userRepository.findById(userId)
@@ -0,0 +1,48 @@
+package com.csci201.project.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers which users wrote recently so their reads can be pinned to the primary
+ * until the replicas have had time to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    // Expired entries are swept once the map grows past this many users
+    private static final int SWEEP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final ConcurrentMap<String, Long> lastWrite = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String username) {
+        if (username == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWrite.put(username, now);
+        if (lastWrite.size() > SWEEP_THRESHOLD) {
+            lastWrite.values().removeIf(writtenAt -> now - writtenAt > windowNanos);
+        }
+    }
+
+    public boolean isPinned(String username) {
+        if (username == null) {
+            return false;
+        }
+        Long writtenAt = lastWrite.get(username);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - writtenAt > windowNanos) {
+            lastWrite.remove(username, writtenAt);
+            return false;
+        }
+        return true;
+    }
+}
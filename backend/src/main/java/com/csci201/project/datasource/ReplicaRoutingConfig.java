@@ -0,0 +1,98 @@
+package com.csci201.project.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single auto-configured DataSource with primary + replica pools when
+ * app.datasource.routing.enabled=true. Read-only transactions
+ * (@Transactional(readOnly = true), and Spring Data's read methods) go to replicas.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("app.datasource.routing")
+    public ReplicaRoutingProperties replicaRoutingProperties() {
+        return new ReplicaRoutingProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties primaryProperties,
+                                 ReplicaRoutingProperties routingProperties,
+                                 MeterRegistry meterRegistry,
+                                 TaskScheduler taskScheduler) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        int index = 0;
+        for (ReplicaRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            String name = replica.getName() != null ? replica.getName() : "replica-" + index;
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(primaryProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword())
+                    .build();
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            // Don't block startup if a replica is down; the health check keeps it out of rotation
+            pool.setInitializationFailTimeout(-1);
+            replicas.put(name, pool);
+            index++;
+        }
+
+        ReadYourWritesTracker tracker = routingProperties.isReadYourWrites()
+                ? new ReadYourWritesTracker(routingProperties.getReadYourWritesWindow())
+                : null;
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas, tracker, meterRegistry);
+        routing.afterPropertiesSet();
+        routing.checkReplicaHealth();
+        taskScheduler.scheduleWithFixedDelay(routing::checkReplicaHealth, routingProperties.getHealthCheckInterval());
+
+        Gauge.builder("datasource.replicas.healthy", routing, r -> r.getHealthyReplicas().size())
+                .register(meterRegistry);
+
+        // Lazy proxy: the physical connection is chosen on first use, after the read-only flag is set
+        return new ClosingLazyConnectionDataSourceProxy(routing);
+    }
+
+    // Lets Spring's inferred close() shut the primary and replica pools down with the context
+    static class ClosingLazyConnectionDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+        private final ReplicaRoutingDataSource routing;
+
+        ClosingLazyConnectionDataSourceProxy(ReplicaRoutingDataSource routing) {
+            super(routing);
+            this.routing = routing;
+        }
+
+        @Override
+        public void close() {
+            routing.close();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.csci201.project.dto;
+
+/**
+ * Cafe representation for list cards and client-side filters (view=card): everything in CafeDTO
+ * except the owner and the AI summary, the largest field.
+ */
+public record CafeCard(Integer cafeId, String name, String address, double latitude, double longitude,
+                       double price, double overallRating, int reviewCount, double bayesianRating, String tags) {
+}
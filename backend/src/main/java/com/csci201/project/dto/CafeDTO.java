@@ -0,0 +1,61 @@
+package com.csci201.project.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Cafe as served by the list and detail endpoints. Same JSON fields as the Cafe entity plus the
+ * review count and Bayesian average, built from the in-memory CafeStore rather than from Hibernate.
+ * Detail responses also carry ratingHistogram: review counts for ratings 0, 0.5, ..., 5.
+ */
+public class CafeDTO {
+    private Integer cafeId;
+    private String name;
+    private String address;
+    private double latitude;
+    private double longitude;
+    private double price;
+    private long userId;
+    private double overallRating;
+    private int reviewCount;
+    private double bayesianRating;
+    private String tags;
+    private String aiSummary;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private int[] ratingHistogram;
+
+    public CafeDTO() {}
+
+    public CafeDTO(Integer cafeId, String name, String address, double latitude, double longitude,
+                   double price, long userId, double overallRating, int reviewCount, double bayesianRating,
+                   String tags, String aiSummary) {
+        this.cafeId = cafeId;
+        this.name = name;
+        this.address = address;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.price = price;
+        this.userId = userId;
+        this.overallRating = overallRating;
+        this.reviewCount = reviewCount;
+        this.bayesianRating = bayesianRating;
+        this.tags = tags;
+        this.aiSummary = aiSummary;
+    }
+
+    // Getters
+    public Integer getCafeId() { return cafeId; }
+    public String getName() { return name; }
+    public String getAddress() { return address; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public double getPrice() { return price; }
+    public long getUserId() { return userId; }
+    public double getOverallRating() { return overallRating; }
+    public int getReviewCount() { return reviewCount; }
+    public double getBayesianRating() { return bayesianRating; }
+    public String getTags() { return tags; }
+    public String getAiSummary() { return aiSummary; }
+    public int[] getRatingHistogram() { return ratingHistogram; }
+
+    public void setRatingHistogram(int[] ratingHistogram) { this.ratingHistogram = ratingHistogram; }
+}
@@ -0,0 +1,7 @@
+package com.csci201.project.dto;
+
+/**
+ * Smallest cafe representation (view=marker): what a map pin needs, without address, tags or summary.
+ */
+public record CafeMarker(Integer cafeId, String name, double latitude, double longitude, double overallRating) {
+}
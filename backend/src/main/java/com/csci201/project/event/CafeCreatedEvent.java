@@ -0,0 +1,8 @@
+package com.csci201.project.event;
+
+/**
+ * Published after a new cafe is saved, carrying every column the in-memory CafeStore keeps.
+ */
+public record CafeCreatedEvent(Integer cafeId, String name, String address, double latitude, double longitude,
+                               double price, long userId, String tags, String aiSummary) {
+}
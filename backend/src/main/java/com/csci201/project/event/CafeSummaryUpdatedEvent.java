@@ -0,0 +1,7 @@
+package com.csci201.project.event;
+
+/**
+ * Published after a cafe's ai_summary is rewritten from its reviews.
+ */
+public record CafeSummaryUpdatedEvent(Integer cafeId, String aiSummary) {
+}
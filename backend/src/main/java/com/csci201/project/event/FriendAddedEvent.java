@@ -0,0 +1,7 @@
+package com.csci201.project.event;
+
+/**
+ * Published after userId adds friendId as a friend.
+ */
+public record FriendAddedEvent(Long userId, Long friendId) {
+}
@@ -0,0 +1,7 @@
+package com.csci201.project.event;
+
+/**
+ * Published after userId removes friendId from their friends.
+ */
+public record FriendRemovedEvent(Long userId, Long friendId) {
+}
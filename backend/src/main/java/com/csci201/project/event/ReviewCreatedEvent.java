@@ -0,0 +1,9 @@
+package com.csci201.project.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a review is saved. Listeners keep derived, in-memory state in step with the reviews table.
+ */
+public record ReviewCreatedEvent(Long reviewId, Integer cafeId, Long userId, double rating, LocalDateTime createdAt) {
+}
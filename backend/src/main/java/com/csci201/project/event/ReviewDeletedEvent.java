@@ -0,0 +1,9 @@
+package com.csci201.project.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a review is deleted, carrying the values the deleted row had.
+ */
+public record ReviewDeletedEvent(Long reviewId, Integer cafeId, Long userId, double rating, LocalDateTime createdAt) {
+}
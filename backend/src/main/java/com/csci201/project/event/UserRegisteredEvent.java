@@ -0,0 +1,7 @@
+package com.csci201.project.event;
+
+/**
+ * Published after a new account is saved.
+ */
+public record UserRegisteredEvent(Long userId, String username, String email) {
+}
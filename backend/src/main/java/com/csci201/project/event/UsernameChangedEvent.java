@@ -0,0 +1,7 @@
+package com.csci201.project.event;
+
+/**
+ * Published after a user changes their username.
+ */
+public record UsernameChangedEvent(Long userId, String oldUsername, String newUsername, String email) {
+}
@@ -0,0 +1,228 @@
+package com.csci201.project.journal;
+
+import com.csci201.project.outbox.OutboxPoller;
+import com.csci201.project.repository.UserRepository;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.store.HotRanking;
+import com.csci201.project.util.AvailabilityIndex;
+import com.csci201.project.util.UserTrie;
+import com.csci201.project.util.UserTrie.UserTrieResult;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Warms the in-memory views (CafeStore, HotRanking, UserTrie, AvailabilityIndex) before the server takes
+ * traffic. With the journal enabled it loads the newest snapshot and replays the journal tail
+ * after it; the result is checked against the highest ids in the database, and any gap or
+ * unreadable file falls back to loading everything from the database. Snapshots are taken
+ * every app.journal.snapshot-interval-ms, after which older journal segments are deleted.
+ *
+ * The journal only sees writes made through this node, so it assumes a single writer;
+ * with several nodes sharing the database leave it disabled. Writes from other nodes arrive
+ * through the OutboxPoller, which starts reading at the outbox position loaded here.
+ */
+@Component
+public class DerivedStateBootstrap {
+
+    private static final Logger log = LoggerFactory.getLogger(DerivedStateBootstrap.class);
+
+    private final EventJournal journal;
+    private final DerivedStateUpdater updater;
+    private final CafeStore cafeStore;
+    private final HotRanking hotRanking;
+    private final UserTrie userTrie;
+    private final AvailabilityIndex availabilityIndex;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxPoller outboxPoller;
+    private final TransactionTemplate consistentRead;
+
+    private volatile long lastSnapshotSeq = -1;
+
+    public DerivedStateBootstrap(EventJournal journal, DerivedStateUpdater updater, CafeStore cafeStore,
+                                 HotRanking hotRanking, UserTrie userTrie, AvailabilityIndex availabilityIndex,
+                                 UserRepository userRepository, JdbcTemplate jdbcTemplate,
+                                 OutboxPoller outboxPoller, PlatformTransactionManager transactionManager) {
+        this.journal = journal;
+        this.updater = updater;
+        this.cafeStore = cafeStore;
+        this.hotRanking = hotRanking;
+        this.userTrie = userTrie;
+        this.availabilityIndex = availabilityIndex;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxPoller = outboxPoller;
+
+        // One snapshot for the views and the outbox position, so the poller neither misses nor repeats a change
+        this.consistentRead = new TransactionTemplate(transactionManager);
+        this.consistentRead.setReadOnly(true);
+        this.consistentRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @PostConstruct
+    public void bootstrap() {
+        long start = System.currentTimeMillis();
+        if (journal.isEnabled() && restoreFromJournal()) {
+            log.info("Restored derived state from snapshot and journal in {} ms", System.currentTimeMillis() - start);
+            return;
+        }
+        loadFromDatabase();
+        log.info("Loaded derived state from the database in {} ms", System.currentTimeMillis() - start);
+        if (journal.isEnabled()) {
+            // Give the next start a snapshot matching what was just loaded
+            snapshot();
+        }
+    }
+
+    /**
+     * Throw away the views and load them again from the database, e.g. when this node has missed
+     * more of the outbox than is still kept. Local writes wait until the reload is done.
+     */
+    public void resync() {
+        long start = System.currentTimeMillis();
+        updater.withUpdatesPaused(() -> {
+            userTrie.clear();
+            availabilityIndex.clear();
+            loadFromDatabase();
+            return null;
+        });
+        log.info("Reloaded derived state from the database in {} ms", System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.snapshot-interval-ms:600000}",
+            initialDelayString = "${app.journal.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        DerivedStateSnapshot snapshot = updater.withUpdatesPaused(() -> new DerivedStateSnapshot(
+                journal.getLastSeq(), updater.getMaxReviewId(), cafeStore.rows(), hotRanking.logScores(),
+                userTrie.entries()));
+        if (snapshot.journalSeq() == lastSnapshotSeq) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Path dir = journal.getDirectory();
+            snapshot.write(dir);
+            lastSnapshotSeq = snapshot.journalSeq();
+            for (Path old : snapshotFiles()) {
+                if (!old.equals(DerivedStateSnapshot.fileName(dir, snapshot.journalSeq()))) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            journal.truncateThrough(snapshot.journalSeq());
+            log.info("Wrote derived state snapshot at sequence {} ({} cafes, {} users) in {} ms",
+                    snapshot.journalSeq(), snapshot.cafes().size(), snapshot.users().size(),
+                    System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("Could not write derived state snapshot: {}", e.getMessage());
+        }
+    }
+
+    private boolean restoreFromJournal() {
+        try {
+            Optional<Path> latest = snapshotFiles().stream().max(Comparator.naturalOrder());
+            if (latest.isEmpty()) {
+                log.info("No derived state snapshot found");
+                return false;
+            }
+            DerivedStateSnapshot snapshot = DerivedStateSnapshot.read(latest.get());
+            if (journal.getFirstSeq() > snapshot.journalSeq() + 1 || journal.getLastSeq() < snapshot.journalSeq()) {
+                log.warn("Journal (sequences {}-{}) does not continue snapshot at {}", journal.getFirstSeq(),
+                        journal.getLastSeq(), snapshot.journalSeq());
+                return false;
+            }
+
+            cafeStore.restore(snapshot.cafes());
+            hotRanking.restore(snapshot.hotScores());
+            for (UserTrieResult user : snapshot.users()) {
+                userTrie.insert(user.getId(), user.getUsername(), user.getEmail());
+                availabilityIndex.add(user.getUsername(), user.getEmail());
+            }
+            updater.setMaxReviewId(snapshot.maxReviewId());
+            long replayed = journal.replay(snapshot.journalSeq(), (seq, event) -> updater.apply(event));
+            lastSnapshotSeq = snapshot.journalSeq();
+
+            if (!matchesDatabase()) {
+                userTrie.clear();
+                availabilityIndex.clear();
+                return false;
+            }
+            log.info("Replayed {} journal records after snapshot at sequence {}", replayed, snapshot.journalSeq());
+            // Single writer: every outbox row so far is ours and already replayed
+            outboxPoller.resumeFrom(outboxPoller.currentPosition());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Includes a gap in the replayed sequence: the snapshot is dropped and the next one taken after the database load
+            log.warn("Could not restore derived state from the journal, loading from the database: {}", e.toString());
+            userTrie.clear();
+            availabilityIndex.clear();
+            return false;
+        }
+    }
+
+    // Cheap check that no writes bypassed the journal: compares the highest ids, not the rows
+    private boolean matchesDatabase() {
+        long dbUsers = maxId("SELECT MAX(id) FROM users");
+        long dbCafes = maxId("SELECT MAX(cafe_id) FROM cafes");
+        long dbReviews = maxId("SELECT MAX(id) FROM reviews");
+
+        long users = userTrie.entries().stream().mapToLong(UserTrieResult::getId).max().orElse(0);
+        long cafes = cafeStore.rows().stream().mapToLong(CafeStore.Row::cafeId).max().orElse(0);
+        long reviews = updater.getMaxReviewId();
+
+        // Deleting the newest reviews lowers the database maximum, so only a higher one is a gap
+        boolean matches = dbUsers == users && dbCafes == cafes && dbReviews <= reviews && (dbReviews > 0 || reviews == 0);
+        if (!matches) {
+            log.warn("Journal state is behind the database (max ids users {}/{}, cafes {}/{}, reviews {}/{})",
+                    users, dbUsers, cafes, dbCafes, reviews, dbReviews);
+        }
+        return matches;
+    }
+
+    private void loadFromDatabase() {
+        OutboxPoller.Position position = consistentRead.execute(status -> {
+            // Read first: with MySQL the snapshot starts at the first read of the transaction
+            OutboxPoller.Position p = outboxPoller.currentPosition();
+            cafeStore.reload();
+            hotRanking.reload();
+            userRepository.findAll().forEach(u -> {
+                userTrie.insert(u.getId(), u.getUsername(), u.getEmail());
+                availabilityIndex.add(u.getUsername(), u.getEmail());
+            });
+            updater.setMaxReviewId(maxId("SELECT MAX(id) FROM reviews"));
+            return p;
+        });
+        outboxPoller.resumeFrom(position);
+    }
+
+    private long maxId(String sql) {
+        Long max = jdbcTemplate.queryForObject(sql, Long.class);
+        return max != null ? max : 0;
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(journal.getDirectory())) {
+            return listing.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(DerivedStateSnapshot.PREFIX) && name.endsWith(DerivedStateSnapshot.SUFFIX);
+            }).toList();
+        }
+    }
+}
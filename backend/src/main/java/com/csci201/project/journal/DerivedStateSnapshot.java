@@ -0,0 +1,123 @@
+package com.csci201.project.journal;
+
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.util.UserTrie.UserTrieResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact copy of the derived views as of journal sequence journalSeq: every cafe with its
+ * rating totals and histogram, the hot scores (as HotRanking log scores) and every user in the trie.
+ * Stored gzip-compressed as snapshot-{seq}.bin.
+ */
+record DerivedStateSnapshot(long journalSeq, long maxReviewId, List<CafeStore.Row> cafes,
+                            Map<Integer, Double> hotScores, List<UserTrieResult> users) {
+
+    private static final int MAGIC = 0x43534e50; // "CSNP"
+    private static final int VERSION = 3;
+
+    static final String PREFIX = "snapshot-";
+    static final String SUFFIX = ".bin";
+
+    static Path fileName(Path dir, long journalSeq) {
+        return dir.resolve(String.format("%s%020d%s", PREFIX, journalSeq, SUFFIX));
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves a partial snapshot
+    void write(Path dir) throws IOException {
+        Path target = fileName(dir, journalSeq);
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalSeq);
+            out.writeLong(maxReviewId);
+            out.writeInt(cafes.size());
+            for (CafeStore.Row cafe : cafes) {
+                out.writeInt(cafe.cafeId());
+                JournalCodec.writeString(out, cafe.name());
+                JournalCodec.writeString(out, cafe.address());
+                out.writeDouble(cafe.latitude());
+                out.writeDouble(cafe.longitude());
+                out.writeDouble(cafe.price());
+                out.writeLong(cafe.userId());
+                JournalCodec.writeString(out, cafe.tags());
+                JournalCodec.writeString(out, cafe.aiSummary());
+                out.writeDouble(cafe.ratingSum());
+                out.writeInt(cafe.reviewCount());
+                for (int count : cafe.ratingHistogram()) {
+                    out.writeInt(count);
+                }
+            }
+            out.writeInt(hotScores.size());
+            for (Map.Entry<Integer, Double> score : hotScores.entrySet()) {
+                out.writeInt(score.getKey());
+                out.writeDouble(score.getValue());
+            }
+            out.writeInt(users.size());
+            for (UserTrieResult user : users) {
+                out.writeLong(user.getId());
+                JournalCodec.writeString(out, user.getUsername());
+                JournalCodec.writeString(out, user.getEmail());
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static DerivedStateSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 64 * 1024)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a version " + VERSION + " snapshot: " + file);
+            }
+            long journalSeq = in.readLong();
+            long maxReviewId = in.readLong();
+            int cafeCount = in.readInt();
+            List<CafeStore.Row> cafes = new ArrayList<>(cafeCount);
+            for (int i = 0; i < cafeCount; i++) {
+                int cafeId = in.readInt();
+                String name = JournalCodec.readString(in);
+                String address = JournalCodec.readString(in);
+                double latitude = in.readDouble();
+                double longitude = in.readDouble();
+                double price = in.readDouble();
+                long userId = in.readLong();
+                String tags = JournalCodec.readString(in);
+                String aiSummary = JournalCodec.readString(in);
+                double ratingSum = in.readDouble();
+                int reviewCount = in.readInt();
+                int[] histogram = new int[CafeStore.HISTOGRAM_BUCKETS];
+                for (int b = 0; b < histogram.length; b++) {
+                    histogram[b] = in.readInt();
+                }
+                cafes.add(new CafeStore.Row(cafeId, name, address, latitude, longitude, price, userId, tags,
+                        aiSummary, ratingSum, reviewCount, histogram));
+            }
+            int hotCount = in.readInt();
+            Map<Integer, Double> hotScores = new HashMap<>(hotCount * 2);
+            for (int i = 0; i < hotCount; i++) {
+                hotScores.put(in.readInt(), in.readDouble());
+            }
+            int userCount = in.readInt();
+            List<UserTrieResult> users = new ArrayList<>(userCount);
+            for (int i = 0; i < userCount; i++) {
+                users.add(new UserTrieResult(in.readLong(), JournalCodec.readString(in), JournalCodec.readString(in)));
+            }
+            return new DerivedStateSnapshot(journalSeq, maxReviewId, cafes, hotScores, users);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.csci201.project.journal;
+
+import com.csci201.project.event.CafeCreatedEvent;
+import com.csci201.project.event.CafeSummaryUpdatedEvent;
+import com.csci201.project.event.FriendAddedEvent;
+import com.csci201.project.event.FriendRemovedEvent;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.event.UserRegisteredEvent;
+import com.csci201.project.event.UsernameChangedEvent;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.store.HotRanking;
+import com.csci201.project.util.AvailabilityIndex;
+import com.csci201.project.util.UserTrie;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single entry point for mutations of the in-memory views (CafeStore rows and ratings, HotRanking,
+ * UserTrie, AvailabilityIndex). Each committed event is applied and then appended to the EventJournal,
+ * both under a shared lock; snapshots take the lock exclusively so the views they capture
+ * match the journal sequence number they record exactly. A failed append never holds back the
+ * views: it is logged and counted (journal.append.failures) and the journal is discarded.
+ */
+@Component
+public class DerivedStateUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(DerivedStateUpdater.class);
+
+    private final EventJournal journal;
+    private final CafeStore cafeStore;
+    private final HotRanking hotRanking;
+    private final UserTrie userTrie;
+    private final AvailabilityIndex availabilityIndex;
+
+    private final Counter appendFailures;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Highest review id applied so far, used to check a restored state against the database
+    private final AtomicLong maxReviewId = new AtomicLong();
+
+    private final List<Consumer<Object>> listeners = new CopyOnWriteArrayList<>();
+
+    public DerivedStateUpdater(EventJournal journal, CafeStore cafeStore, HotRanking hotRanking,
+                               UserTrie userTrie, AvailabilityIndex availabilityIndex, MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.cafeStore = cafeStore;
+        this.hotRanking = hotRanking;
+        this.userTrie = userTrie;
+        this.availabilityIndex = availabilityIndex;
+        this.appendFailures = Counter.builder("journal.append.failures")
+                .description("Events the journal could not take; the journal is discarded after the first")
+                .register(meterRegistry);
+    }
+
+    // Listeners run after the writing transaction commits, or immediately when there is none
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeCreated(CafeCreatedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCafeSummaryUpdated(CafeSummaryUpdatedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewCreated(ReviewCreatedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewDeleted(ReviewDeletedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFriendAdded(FriendAddedEvent event) {
+        record(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFriendRemoved(FriendRemovedEvent event) {
+        record(event);
+    }
+
+    /**
+     * Be told about every live change (made here or on another node) once the views reflect it.
+     * Not called while replaying the journal. Listeners run on the writing thread and must be quick.
+     */
+    public void addListener(Consumer<Object> listener) {
+        listeners.add(listener);
+    }
+
+    // The transaction has already committed, so the views take the change even if the journal cannot
+    private void record(Object event) {
+        lock.readLock().lock();
+        try {
+            apply(event);
+        } finally {
+            try {
+                journal.append(event);
+            } catch (RuntimeException e) {
+                appendFailures.increment();
+                log.error("Could not journal {}; discarding the journal so the next start loads from the database",
+                        event.getClass().getSimpleName(), e);
+                journal.discard();
+            }
+            lock.readLock().unlock();
+        }
+        notifyListeners(event);
+    }
+
+    /**
+     * Apply a change made on another node (read from the outbox). It is not journaled: the
+     * journal only covers this node's own writes.
+     */
+    public void applyRemote(Object event) {
+        lock.readLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.readLock().unlock();
+        }
+        notifyListeners(event);
+    }
+
+    private void notifyListeners(Object event) {
+        for (Consumer<Object> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    /**
+     * Apply an event to the views without journaling it (used when replaying the journal)
+     */
+    void apply(Object event) {
+        switch (event) {
+            case CafeCreatedEvent e -> cafeStore.applyCafeCreated(e);
+            case CafeSummaryUpdatedEvent e -> cafeStore.applyCafeSummaryUpdated(e);
+            case ReviewCreatedEvent e -> {
+                cafeStore.applyReviewCreated(e);
+                hotRanking.applyReviewCreated(e);
+                maxReviewId.accumulateAndGet(e.reviewId(), Math::max);
+            }
+            case ReviewDeletedEvent e -> {
+                cafeStore.applyReviewDeleted(e);
+                hotRanking.applyReviewDeleted(e);
+            }
+            case UserRegisteredEvent e -> {
+                userTrie.insert(e.userId(), e.username(), e.email());
+                availabilityIndex.add(e.username(), e.email());
+            }
+            case UsernameChangedEvent e -> {
+                userTrie.remove(e.oldUsername());
+                userTrie.insert(e.userId(), e.newUsername(), e.email());
+                availabilityIndex.rename(e.oldUsername(), e.newUsername());
+            }
+            // Friend changes are journaled for replay by future views; nothing in memory derives from them yet
+            case FriendAddedEvent e -> { }
+            case FriendRemovedEvent e -> { }
+            default -> throw new IllegalArgumentException("Unexpected event " + event.getClass().getName());
+        }
+    }
+
+    /**
+     * Run action with all event application paused, e.g. to capture a consistent snapshot
+     */
+    <T> T withUpdatesPaused(Supplier<T> action) {
+        lock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long getMaxReviewId() {
+        return maxReviewId.get();
+    }
+
+    void setMaxReviewId(long reviewId) {
+        maxReviewId.set(reviewId);
+    }
+}
@@ -0,0 +1,301 @@
+package com.csci201.project.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the mutations that feed in-memory derived state (reviews, users, friends),
+ * kept in memory-mapped segment files under app.journal.dir. Every record gets a sequence
+ * number; a snapshot taken at sequence N plus a replay of the records after N reproduces the
+ * derived state without reading the database.
+ *
+ * Record layout: int payload length | long seq | byte type | payload | int CRC32 of seq, type and payload.
+ * Segments are zero-filled when mapped, so a zero length marks the end of the written data and a
+ * bad checksum marks a write torn by a crash; either ends the scan. Damage anywhere but the tail of
+ * the newest segment leaves a hole in the sequence, which replay reports instead of skipping.
+ */
+@Component
+public class EventJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + 1;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    @Value("${app.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.journal.dir:data/journal}")
+    private String directory;
+
+    @Value("${app.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    // Guarded by this
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment active;
+    private long lastSeq;
+    // Set once an append fails; from then on nothing is journaled until restart
+    private boolean discarded;
+
+    private static final class Segment {
+        final Path path;
+        final long baseSeq;     // sequence number of the first record written to this segment
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        int position;
+
+        Segment(Path path, long baseSeq, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.baseSeq = baseSeq;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path dir = getDirectory();
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            segments.add(map(file, baseSeqOf(file), Files.size(file)));
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(1, 0);
+            lastSeq = 0;
+        } else {
+            active = segments.get(segments.size() - 1);
+            lastSeq = active.baseSeq - 1;
+            scan(active, 0, (seq, event) -> lastSeq = seq);
+        }
+        log.info("Opened event journal in {} ({} segments, last sequence {})", dir, segments.size(), lastSeq);
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled && !discarded;
+    }
+
+    public Path getDirectory() {
+        return Paths.get(directory);
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    // Sequence number of the oldest record still on disk (lastSeq + 1 when the journal is empty)
+    public synchronized long getFirstSeq() {
+        return segments.isEmpty() ? lastSeq + 1 : segments.get(0).baseSeq;
+    }
+
+    /**
+     * Append an event and return its sequence number, or 0 when the journal is disabled.
+     */
+    public synchronized long append(Object event) {
+        if (!enabled || discarded) {
+            return 0;
+        }
+        byte type = JournalCodec.typeOf(event);
+        byte[] payload = JournalCodec.encode(event);
+        int recordBytes = HEADER_BYTES + payload.length + TRAILER_BYTES;
+        try {
+            if (active.position + recordBytes > active.buffer.capacity()) {
+                active.buffer.force();
+                active = createSegment(lastSeq + 1, recordBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long seq = lastSeq + 1;
+        MappedByteBuffer buffer = active.buffer;
+        int start = active.position;
+        buffer.putLong(start + Integer.BYTES, seq);
+        buffer.put(start + Integer.BYTES + Long.BYTES, type);
+        buffer.put(start + HEADER_BYTES, payload);
+        buffer.putInt(start + HEADER_BYTES + payload.length, checksum(seq, type, payload));
+        // Length goes in last so a reader never sees a record whose body is not written yet
+        buffer.putInt(start, payload.length);
+        active.position += recordBytes;
+        lastSeq = seq;
+        return seq;
+    }
+
+    /**
+     * Feed every record with a sequence number above afterSeq to the consumer, in order.
+     * Returns the number of records replayed. Throws IllegalStateException when a record between
+     * afterSeq and the last sequence is missing (e.g. a damaged older segment); records before
+     * the gap have already been passed to the consumer by then.
+     */
+    public synchronized long replay(long afterSeq, BiConsumer<Long, Object> consumer) {
+        long[] expected = {afterSeq + 1};
+        for (Segment segment : segments) {
+            scan(segment, afterSeq, (seq, event) -> {
+                if (seq != expected[0]) {
+                    throw new IllegalStateException("Journal is missing records " + expected[0] + "-" + (seq - 1)
+                            + " (segment " + segment.path.getFileName() + ")");
+                }
+                consumer.accept(seq, event);
+                expected[0]++;
+            });
+        }
+        if (expected[0] <= lastSeq) {
+            throw new IllegalStateException("Journal is missing records " + expected[0] + "-" + lastSeq);
+        }
+        return expected[0] - afterSeq - 1;
+    }
+
+    /**
+     * Stop journaling and delete the segments and snapshots, after an append failed: the journal no
+     * longer holds every change, so the next start has to load from the database.
+     */
+    public synchronized void discard() {
+        if (!enabled || discarded) {
+            return;
+        }
+        discarded = true;
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+        segments.clear();
+        active = null;
+        try (Stream<Path> listing = Files.list(getDirectory())) {
+            for (Path snapshot : listing.filter(path -> path.getFileName().toString()
+                    .startsWith(DerivedStateSnapshot.PREFIX)).toList()) {
+                Files.deleteIfExists(snapshot);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete derived state snapshots in {}: {}", getDirectory(), e.getMessage());
+        }
+    }
+
+    /**
+     * Delete segments whose records all have sequence numbers at or below seq. The active segment is kept.
+     */
+    public synchronized void truncateThrough(long seq) {
+        while (segments.size() > 1 && segments.get(1).baseSeq <= seq + 1) {
+            Segment oldest = segments.remove(0);
+            try {
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", oldest.path, e.getMessage());
+            }
+        }
+    }
+
+    // Push dirty pages to disk; between flushes a machine crash can lose the newest records
+    @Scheduled(fixedDelayString = "${app.journal.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (enabled && active != null) {
+            active.buffer.force();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        for (Segment segment : segments) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+        segments.clear();
+    }
+
+    // Decode the records of one segment, stopping at the end of written data; sets segment.position
+    private void scan(Segment segment, long afterSeq, BiConsumer<Long, Object> consumer) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_BYTES + TRAILER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_BYTES + length + TRAILER_BYTES > buffer.capacity()) {
+                break;
+            }
+            long seq = buffer.getLong(position + Integer.BYTES);
+            byte type = buffer.get(position + Integer.BYTES + Long.BYTES);
+            byte[] payload = new byte[length];
+            buffer.get(position + HEADER_BYTES, payload);
+            if (buffer.getInt(position + HEADER_BYTES + length) != checksum(seq, type, payload)) {
+                log.warn("Journal segment {} has a torn record at offset {}; ignoring the rest", segment.path, position);
+                break;
+            }
+            if (seq > afterSeq) {
+                consumer.accept(seq, JournalCodec.decode(type, payload));
+            }
+            position += HEADER_BYTES + length + TRAILER_BYTES;
+        }
+        segment.position = position;
+    }
+
+    private Segment createSegment(long baseSeq, int minimumBytes) throws IOException {
+        Path file = getDirectory().resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseSeq, SEGMENT_SUFFIX));
+        long size = Math.max((long) segmentSizeMb * 1024 * 1024, minimumBytes);
+        Segment segment = map(file, baseSeq, size);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static Segment map(Path file, long baseSeq, long size) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new Segment(file, baseSeq, channel, buffer);
+    }
+
+    private static long baseSeqOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(long seq, byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (seq >>> shift));
+        }
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
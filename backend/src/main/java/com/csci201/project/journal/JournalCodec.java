@@ -0,0 +1,156 @@
+package com.csci201.project.journal;
+
+import com.csci201.project.event.CafeCreatedEvent;
+import com.csci201.project.event.CafeSummaryUpdatedEvent;
+import com.csci201.project.event.FriendAddedEvent;
+import com.csci201.project.event.FriendRemovedEvent;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.event.UserRegisteredEvent;
+import com.csci201.project.event.UsernameChangedEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding of the journaled events. Each event type has a one-byte tag; the payload
+ * is its fields written with DataOutput. Tags are part of the on-disk format and must never be reused.
+ */
+final class JournalCodec {
+
+    static final byte REVIEW_CREATED = 1;
+    static final byte REVIEW_DELETED = 2;
+    static final byte USER_REGISTERED = 3;
+    static final byte USERNAME_CHANGED = 4;
+    static final byte FRIEND_ADDED = 5;
+    static final byte FRIEND_REMOVED = 6;
+    static final byte CAFE_CREATED = 7;
+    static final byte CAFE_SUMMARY_UPDATED = 8;
+
+    private JournalCodec() {
+    }
+
+    static byte typeOf(Object event) {
+        return switch (event) {
+            case ReviewCreatedEvent e -> REVIEW_CREATED;
+            case ReviewDeletedEvent e -> REVIEW_DELETED;
+            case UserRegisteredEvent e -> USER_REGISTERED;
+            case UsernameChangedEvent e -> USERNAME_CHANGED;
+            case FriendAddedEvent e -> FRIEND_ADDED;
+            case FriendRemovedEvent e -> FRIEND_REMOVED;
+            case CafeCreatedEvent e -> CAFE_CREATED;
+            case CafeSummaryUpdatedEvent e -> CAFE_SUMMARY_UPDATED;
+            default -> 0;
+        };
+    }
+
+    static byte[] encode(Object event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (event) {
+                case ReviewCreatedEvent e -> writeReview(out, e.reviewId(), e.cafeId(), e.userId(), e.rating(), e.createdAt());
+                case ReviewDeletedEvent e -> writeReview(out, e.reviewId(), e.cafeId(), e.userId(), e.rating(), e.createdAt());
+                case UserRegisteredEvent e -> {
+                    out.writeLong(e.userId());
+                    writeString(out, e.username());
+                    writeString(out, e.email());
+                }
+                case UsernameChangedEvent e -> {
+                    out.writeLong(e.userId());
+                    writeString(out, e.oldUsername());
+                    writeString(out, e.newUsername());
+                    writeString(out, e.email());
+                }
+                case FriendAddedEvent e -> {
+                    out.writeLong(e.userId());
+                    out.writeLong(e.friendId());
+                }
+                case FriendRemovedEvent e -> {
+                    out.writeLong(e.userId());
+                    out.writeLong(e.friendId());
+                }
+                case CafeCreatedEvent e -> {
+                    out.writeInt(e.cafeId());
+                    writeString(out, e.name());
+                    writeString(out, e.address());
+                    out.writeDouble(e.latitude());
+                    out.writeDouble(e.longitude());
+                    out.writeDouble(e.price());
+                    out.writeLong(e.userId());
+                    writeString(out, e.tags());
+                    writeString(out, e.aiSummary());
+                }
+                case CafeSummaryUpdatedEvent e -> {
+                    out.writeInt(e.cafeId());
+                    writeString(out, e.aiSummary());
+                }
+                default -> throw new IllegalArgumentException("Not a journaled event: " + event.getClass().getName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object decode(byte type, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return switch (type) {
+                case REVIEW_CREATED -> new ReviewCreatedEvent(in.readLong(), in.readInt(), in.readLong(),
+                        in.readDouble(), readTime(in));
+                case REVIEW_DELETED -> new ReviewDeletedEvent(in.readLong(), in.readInt(), in.readLong(),
+                        in.readDouble(), readTime(in));
+                case USER_REGISTERED -> new UserRegisteredEvent(in.readLong(), readString(in), readString(in));
+                case USERNAME_CHANGED -> new UsernameChangedEvent(in.readLong(), readString(in), readString(in),
+                        readString(in));
+                case FRIEND_ADDED -> new FriendAddedEvent(in.readLong(), in.readLong());
+                case FRIEND_REMOVED -> new FriendRemovedEvent(in.readLong(), in.readLong());
+                case CAFE_CREATED -> new CafeCreatedEvent(in.readInt(), readString(in), readString(in),
+                        in.readDouble(), in.readDouble(), in.readDouble(), in.readLong(), readString(in),
+                        readString(in));
+                case CAFE_SUMMARY_UPDATED -> new CafeSummaryUpdatedEvent(in.readInt(), readString(in));
+                default -> throw new IllegalArgumentException("Unknown journal record type " + type);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeReview(DataOutput out, Long reviewId, Integer cafeId, Long userId, double rating,
+                                    LocalDateTime createdAt) throws IOException {
+        out.writeLong(reviewId);
+        out.writeInt(cafeId);
+        out.writeLong(userId);
+        out.writeDouble(rating);
+        out.writeBoolean(createdAt != null);
+        if (createdAt != null) {
+            out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(createdAt.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
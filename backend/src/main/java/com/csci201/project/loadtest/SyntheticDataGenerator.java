@@ -0,0 +1,272 @@
+package com.csci201.project.loadtest;
+
+import com.csci201.project.journal.DerivedStateBootstrap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills an empty database with a deterministic synthetic data set for load testing:
+ * N users, M cafes spread over a city bounding box, a power-law friend graph
+ * (preferential attachment) and Zipf-distributed reviews. The same seed always
+ * produces the same rows, and ids are assigned 1..N / 1..M in insertion order.
+ * All generated users share the password {@link #PASSWORD}.
+ */
+@Component
+@Profile("loadtest")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    public static final String PASSWORD = "Loadtest1!";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] TAGS = {"wifi", "outlets", "bathrooms", "metro-friendly", "quiet", "patio", "pastries", "late-night"};
+    private static final String[] COMMENTS = {
+            "Great espresso and friendly baristas.",
+            "Good spot to study, outlets everywhere.",
+            "A bit crowded in the afternoon but the latte was worth it.",
+            "Pastries were fresh, coffee was just okay.",
+            "Quiet in the morning, loud after lunch.",
+            "Best cold brew in the neighborhood."
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final DerivedStateBootstrap derivedStateBootstrap;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.users:10000}")
+    private int userCount;
+
+    @Value("${loadtest.cafes:2000}")
+    private int cafeCount;
+
+    @Value("${loadtest.reviews:100000}")
+    private int reviewCount;
+
+    @Value("${loadtest.friends-per-user:5}")
+    private int friendsPerUser;
+
+    @Value("${loadtest.zipf-exponent:1.1}")
+    private double zipfExponent;
+
+    // Default bounding box: Los Angeles
+    @Value("${loadtest.bbox.min-lat:33.70}")
+    private double minLat;
+
+    @Value("${loadtest.bbox.max-lat:34.34}")
+    private double maxLat;
+
+    @Value("${loadtest.bbox.min-lng:-118.67}")
+    private double minLng;
+
+    @Value("${loadtest.bbox.max-lng:-118.16}")
+    private double maxLng;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder,
+                                  DerivedStateBootstrap derivedStateBootstrap) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.derivedStateBootstrap = derivedStateBootstrap;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existingUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existingUsers != null && existingUsers > 0) {
+            log.info("Skipping synthetic data generation: users table already has {} rows", existingUsers);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        generateUsers();
+        generateCafes(random.split());
+        int friendships = generateFriends(random.split());
+        int reviews = generateReviews(random.split());
+        // The in-memory views (cafes, hot ranking, username index) loaded the empty tables at startup
+        derivedStateBootstrap.resync();
+
+        log.info("Generated {} users, {} cafes, {} friendships, {} reviews in {} ms",
+                userCount, cafeCount, friendships, reviews, System.currentTimeMillis() - start);
+    }
+
+    private void generateUsers() {
+        // One BCrypt hash shared by every user keeps generation fast
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= userCount; i++) {
+            String username = username(i);
+            String email = username + "@loadtest.local";
+            batch.add(new Object[]{username, email, encodedPassword});
+            flushIfFull("INSERT INTO users (username, email, password) VALUES (?, ?, ?)", batch);
+        }
+        flush("INSERT INTO users (username, email, password) VALUES (?, ?, ?)", batch);
+    }
+
+    private void generateCafes(SplittableRandom random) {
+        String sql = "INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= cafeCount; i++) {
+            double lat = minLat + random.nextDouble() * (maxLat - minLat);
+            double lng = minLng + random.nextDouble() * (maxLng - minLng);
+            String tags = TAGS[random.nextInt(TAGS.length)] + "," + TAGS[random.nextInt(TAGS.length)];
+            batch.add(new Object[]{
+                    "Cafe " + i,
+                    (100 + random.nextInt(9900)) + " Synthetic St, Los Angeles, CA",
+                    lat,
+                    lng,
+                    (double) (1 + random.nextInt(3)),
+                    (long) (1 + random.nextInt(userCount)),
+                    0.0,
+                    tags,
+                    "Synthetic cafe generated for load testing."
+            });
+            flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    // Preferential attachment: each new user follows existing users with probability proportional to degree
+    private int generateFriends(SplittableRandom random) {
+        String sql = "INSERT INTO user_friends (user_id, friend_id) VALUES (?, ?)";
+        int[] endpoints = new int[userCount * friendsPerUser * 2 + 2];
+        int endpointCount = 0;
+        int friendships = 0;
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        Set<Long> edges = new HashSet<>();
+
+        for (int user = 1; user <= userCount; user++) {
+            int links = Math.min(friendsPerUser, user - 1);
+            for (int l = 0; l < links; l++) {
+                int target = endpointCount == 0
+                        ? 1 + random.nextInt(user - 1)
+                        : endpoints[random.nextInt(endpointCount)];
+                if (target == user || !edges.add(((long) user << 32) | target)) {
+                    continue;
+                }
+                batch.add(new Object[]{(long) user, (long) target});
+                flushIfFull(sql, batch);
+                endpoints[endpointCount++] = user;
+                endpoints[endpointCount++] = target;
+                friendships++;
+            }
+        }
+        flush(sql, batch);
+        return friendships;
+    }
+
+    // Cafes and reviewers are both Zipf-distributed, so a few cafes and users dominate
+    private int generateReviews(SplittableRandom random) {
+        String sql = "INSERT INTO reviews (user_id, cafe_id, rating, comment, created_at) VALUES (?, ?, ?, ?, ?)";
+        double[] cafeCdf = zipfCdf(cafeCount);
+        double[] userCdf = zipfCdf(userCount);
+        // Shuffle ranks so popularity is not correlated with id
+        int[] cafeByRank = shuffledIds(cafeCount, random);
+        int[] userByRank = shuffledIds(userCount, random);
+        double[] cafeQuality = new double[cafeCount + 1];
+        for (int c = 1; c <= cafeCount; c++) {
+            cafeQuality[c] = 2.5 + random.nextDouble() * 2.5;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> reviewed = new HashSet<>();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int written = 0;
+        int attempts = 0;
+        while (written < reviewCount && attempts < reviewCount * 4) {
+            attempts++;
+            int cafeId = cafeByRank[sample(cafeCdf, random)];
+            int userId = userByRank[sample(userCdf, random)];
+            if (!reviewed.add(((long) userId << 32) | cafeId)) {
+                continue; // one review per user per cafe
+            }
+            double rating = Math.round(clamp(cafeQuality[cafeId] + random.nextGaussian() * 0.8) * 2) / 2.0;
+            LocalDateTime createdAt = now.minusMinutes(random.nextInt(365 * 24 * 60));
+            batch.add(new Object[]{
+                    (long) userId,
+                    cafeId,
+                    rating,
+                    COMMENTS[random.nextInt(COMMENTS.length)],
+                    Timestamp.valueOf(createdAt)
+            });
+            flushIfFull(sql, batch);
+            written++;
+        }
+        flush(sql, batch);
+        return written;
+    }
+
+    private double[] zipfCdf(int n) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1.0 / Math.pow(rank, zipfExponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+    }
+
+    private static int[] shuffledIds(int n, SplittableRandom random) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        return ids;
+    }
+
+    private static double clamp(double rating) {
+        return Math.max(0.0, Math.min(5.0, rating));
+    }
+
+    public static String username(int index) {
+        return "user" + index;
+    }
+
+    private void flushIfFull(String sql, List<Object[]> batch) {
+        if (batch.size() >= BATCH_SIZE) {
+            flush(sql, batch);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.csci201.project.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Wraps DataSource beans in a thin JDK proxy chain (DataSource, Connection, Statement, ResultSet)
+ * that reports executed statements (with their SQL) and rows read to {@link JdbcAccounting}.
+ * Sitting below both Hibernate and JdbcTemplate, it sees every statement the application runs.
+ * unwrap()/isWrapperFor() pass through, so pool metrics still find the Hikari pool.
+ */
+@Component
+public class CountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || Proxy.isProxyClass(bean.getClass())) {
+            return bean;
+        }
+        // A fixed interface set keeps the proxy shape known ahead of time (see NativeHints);
+        // Closeable is kept so the context still shuts the pool down
+        Class<?>[] interfaces = bean instanceof Closeable
+                ? new Class<?>[]{DataSource.class, Closeable.class}
+                : new Class<?>[]{DataSource.class};
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, new DataSourceHandler(bean));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(CountingDataSourcePostProcessor.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    // sql is the prepared SQL, or null for a plain Statement (which passes it to execute)
+    private static Object wrapStatement(Object statement, String sql) {
+        if (statement instanceof CallableStatement) {
+            return proxy(CallableStatement.class, new StatementHandler(statement, sql));
+        }
+        if (statement instanceof PreparedStatement) {
+            return proxy(PreparedStatement.class, new StatementHandler(statement, sql));
+        }
+        return proxy(Statement.class, new StatementHandler(statement, sql));
+    }
+
+    private record DataSourceHandler(Object target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingDataSourcePostProcessor.invoke(target, method, args);
+            if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                return proxy(Connection.class, new ConnectionHandler(connection));
+            }
+            return result;
+        }
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingDataSourcePostProcessor.invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof Statement
+                    && (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                return wrapStatement(result, name.equals("createStatement") ? null : (String) args[0]);
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Object target, String sql) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                JdbcAccounting.statementExecuted(args != null && args.length > 0 && args[0] instanceof String text
+                        ? text : sql);
+            }
+            Object result = CountingDataSourcePostProcessor.invoke(target, method, args);
+            if (result instanceof ResultSet resultSet
+                    && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet));
+            }
+            return result;
+        }
+    }
+
+    private record ResultSetHandler(ResultSet target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingDataSourcePostProcessor.invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                JdbcAccounting.rowRead();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.csci201.project.metrics;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request counters for JDBC statements executed and rows read.
+ * A request filter opens the scope; the counting DataSource proxy adds to it.
+ * Work a request hands to another thread is only attributed when it goes through
+ * {@link #propagating(Executor)}; other background work is not counted.
+ */
+public final class JdbcAccounting {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private JdbcAccounting() {
+    }
+
+    public static Counts begin() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    // Continue counting into existing counts, e.g. on the async dispatch of the same request
+    public static void resume(Counts counts) {
+        CURRENT.set(counts);
+    }
+
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * An executor whose tasks count toward the calling thread's request. Capture it on the
+     * request thread: continuations are often submitted from some other pool's thread.
+     */
+    public static Executor propagating(Executor executor) {
+        Counts counts = CURRENT.get();
+        if (counts == null) {
+            return executor;
+        }
+        return task -> executor.execute(() -> {
+            Counts previous = CURRENT.get();
+            CURRENT.set(counts);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        });
+    }
+
+    static void statementExecuted(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements.incrementAndGet();
+            QueryBudgetInspector.State budget = counts.budget;
+            if (budget != null) {
+                budget.record(sql);
+            }
+        }
+    }
+
+    static void rowRead() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.rows.incrementAndGet();
+        }
+    }
+
+    // Atomic: a request's continuation may run on another thread while the request thread finishes
+    public static class Counts {
+        private final AtomicInteger statements = new AtomicInteger();
+        private final AtomicLong rows = new AtomicLong();
+        // Set by QueryBudgetInspector once the handler is known
+        volatile QueryBudgetInspector.State budget;
+
+        public int getStatements() { return statements.get(); }
+        public long getRows() { return rows.get(); }
+    }
+}
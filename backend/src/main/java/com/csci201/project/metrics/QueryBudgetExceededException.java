@@ -0,0 +1,12 @@
+package com.csci201.project.metrics;
+
+/**
+ * Thrown (only when query-budget.fail-on-exceed=true, e.g. in tests) as soon as
+ * a request issues more statements than its endpoint's budget.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,161 @@
+package com.csci201.project.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements each controller method issues and compares them with the
+ * endpoint's {@link QueryBudget}. Statements are seen at the JDBC level (Hibernate and
+ * JdbcTemplate alike) through {@link JdbcAccounting}, including continuations handed off
+ * with {@link JdbcAccounting#propagating}. Over budget, it counts query.budget.exceeded and
+ * either throws (query-budget.fail-on-exceed=true, meant for tests) or logs a warning listing
+ * the normalized SQL, so repeated per-row queries (N+1) stand out.
+ */
+@Component
+public class QueryBudgetInspector implements HandlerInterceptor, WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetInspector.class);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Hibernate's generated aliases (c1_0, r1_0, ...) differ between otherwise identical statements
+    private static final Pattern ALIAS = Pattern.compile("\\b([a-z]+)\\d+_\\d+\\b");
+
+    private final MeterRegistry meterRegistry;
+    private final int defaultBudget;
+    private final boolean failOnExceed;
+    private final long warnIntervalNanos;
+    private final ConcurrentMap<String, Long> lastWarned = new ConcurrentHashMap<>();
+
+    public QueryBudgetInspector(MeterRegistry meterRegistry,
+                                @Value("${query-budget.default-budget:10}") int defaultBudget,
+                                @Value("${query-budget.fail-on-exceed:false}") boolean failOnExceed,
+                                @Value("${query-budget.warn-interval-seconds:60}") long warnIntervalSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+        this.failOnExceed = failOnExceed;
+        this.warnIntervalNanos = TimeUnit.SECONDS.toNanos(warnIntervalSeconds);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    // Statements run before the handler (authentication filters) do not count toward its budget
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        JdbcAccounting.Counts counts = JdbcAccounting.current();
+        // Async dispatches of the same request keep the budget set on the first one
+        if (counts == null || counts.budget != null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        QueryBudget annotation = handlerMethod.getMethodAnnotation(QueryBudget.class);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        counts.budget = new State(
+                handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName()
+                        + " (" + pattern + ")",
+                request.getMethod(), String.valueOf(pattern),
+                annotation != null ? annotation.value() : defaultBudget);
+        return true;
+    }
+
+    // Called by RequestJdbcMetricsFilter once the request (including any async part) has finished
+    void afterRequest(JdbcAccounting.Counts counts) {
+        State state = counts.budget;
+        if (state == null || !state.exceeded()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long previous = lastWarned.get(state.endpoint);
+        if (previous != null && now - previous < warnIntervalNanos) {
+            return;
+        }
+        lastWarned.put(state.endpoint, now);
+        log.warn(state.describe());
+    }
+
+    static String normalize(String sql) {
+        if (sql == null) {
+            return "(unknown statement)";
+        }
+        String normalized = sql.toLowerCase();
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (...)");
+        normalized = ALIAS.matcher(normalized).replaceAll("$1");
+        return normalized;
+    }
+
+    class State {
+        private final String endpoint;
+        private final String method;
+        private final String uri;
+        private final int budget;
+        // Raw SQL as executed; normalized only when a report is written
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+        private int count;
+
+        State(String endpoint, String method, String uri, int budget) {
+            this.endpoint = endpoint;
+            this.method = method;
+            this.uri = uri;
+            this.budget = budget;
+        }
+
+        void record(String sql) {
+            boolean first;
+            String report;
+            synchronized (this) {
+                statements.merge(sql != null ? sql : "", 1, Integer::sum);
+                if (++count <= budget) {
+                    return;
+                }
+                first = count == budget + 1;
+                report = failOnExceed ? describe() : null;
+            }
+            if (first) {
+                meterRegistry.counter("query.budget.exceeded", "method", method, "uri", uri).increment();
+            }
+            if (failOnExceed) {
+                throw new QueryBudgetExceededException(report);
+            }
+        }
+
+        synchronized boolean exceeded() {
+            return count > budget;
+        }
+
+        synchronized String describe() {
+            Map<String, Integer> normalized = new LinkedHashMap<>();
+            statements.forEach((sql, n) -> normalized.merge(normalize(sql.isEmpty() ? null : sql), n, Integer::sum));
+            String lines = normalized.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .map(e -> "  " + e.getValue() + "x " + e.getKey())
+                    .collect(Collectors.joining("\n"));
+            return "Query budget exceeded for " + endpoint + ": " + count
+                    + " statements (budget " + budget + ")\n" + lines;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.csci201.project.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records, per request, how many JDBC statements ran and how many rows were read,
+ * tagged by the matched URI pattern, and hands the tally to {@link QueryBudgetInspector}.
+ * An async request keeps one tally across its dispatches and is recorded when the last one ends.
+ */
+@Component
+public class RequestJdbcMetricsFilter extends OncePerRequestFilter {
+
+    private static final String COUNTS_ATTRIBUTE = RequestJdbcMetricsFilter.class.getName() + ".COUNTS";
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudgetInspector queryBudgetInspector;
+
+    public RequestJdbcMetricsFilter(MeterRegistry meterRegistry, QueryBudgetInspector queryBudgetInspector) {
+        this.meterRegistry = meterRegistry;
+        this.queryBudgetInspector = queryBudgetInspector;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        JdbcAccounting.Counts counts = (JdbcAccounting.Counts) request.getAttribute(COUNTS_ATTRIBUTE);
+        if (counts == null) {
+            counts = JdbcAccounting.begin();
+            request.setAttribute(COUNTS_ATTRIBUTE, counts);
+        } else {
+            JdbcAccounting.resume(counts);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            JdbcAccounting.end();
+            // An async request is recorded once, by the dispatch that finishes it
+            if (!request.isAsyncStarted()) {
+                queryBudgetInspector.afterRequest(counts);
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+                DistributionSummary.builder("db.request.statements")
+                        .description("JDBC statements executed per request")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .record(counts.getStatements());
+                DistributionSummary.builder("db.request.rows")
+                        .description("Rows read from JDBC result sets per request")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .record(counts.getRows());
+            }
+        }
+    }
+}
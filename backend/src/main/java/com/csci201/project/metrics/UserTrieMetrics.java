@@ -0,0 +1,28 @@
+package com.csci201.project.metrics;
+
+import com.csci201.project.util.UserTrie;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the number of usernames held in the search trie.
+ * Search latency is recorded by UserController as usertrie.search.
+ */
+@Component
+public class UserTrieMetrics implements MeterBinder {
+
+    private final UserTrie userTrie;
+
+    public UserTrieMetrics(UserTrie userTrie) {
+        this.userTrie = userTrie;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("usertrie.size", userTrie, UserTrie::size)
+                .description("Usernames indexed for search")
+                .register(registry);
+    }
+}
@@ -19,7 +19,7 @@ public class Cafe {
     private double price;
 
     @Column(name = "user_id")
-    private int userId;
+    private long userId;
 
     @Column(name = "overall_rating")
     private double overallRating;
@@ -29,6 +29,20 @@ public class Cafe {
     @Column(name = "ai_summary")
     private String aiSummary;
 
+    public Cafe() {}
+
+    public Cafe(String name, String address, double latitude, double longitude, double price, long userId,
+                String tags, String aiSummary) {
+        this.name = name;
+        this.address = address;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.price = price;
+        this.userId = userId;
+        this.tags = tags;
+        this.aiSummary = aiSummary;
+    }
+
     // getters only
     public Integer getCafeId() { return cafeId; }
     public String getName() { return name; }
@@ -36,7 +50,7 @@ public class Cafe {
     public double getLatitude() { return latitude; }
     public double getLongitude() { return longitude; }
     public double getPrice() { return price; }
-    public int getUserId() { return userId; }
+    public long getUserId() { return userId; }
     public double getOverallRating() { return overallRating; }
     public String getTags() { return tags; }
     public String getAiSummary() { return aiSummary; }
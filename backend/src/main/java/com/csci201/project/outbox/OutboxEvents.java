@@ -0,0 +1,47 @@
+package com.csci201.project.outbox;
+
+import com.csci201.project.event.CafeCreatedEvent;
+import com.csci201.project.event.CafeSummaryUpdatedEvent;
+import com.csci201.project.event.FriendAddedEvent;
+import com.csci201.project.event.FriendRemovedEvent;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.event.UserRegisteredEvent;
+import com.csci201.project.event.UsernameChangedEvent;
+
+import java.util.Map;
+
+/**
+ * Names stored in outbox_events.event_type. They are shared by every node reading the table,
+ * so an existing name must never change meaning; the payload is the event record as JSON.
+ */
+final class OutboxEvents {
+
+    private static final Map<String, Class<?>> TYPES = Map.of(
+            "review.created", ReviewCreatedEvent.class,
+            "review.deleted", ReviewDeletedEvent.class,
+            "user.registered", UserRegisteredEvent.class,
+            "user.renamed", UsernameChangedEvent.class,
+            "friend.added", FriendAddedEvent.class,
+            "friend.removed", FriendRemovedEvent.class,
+            "cafe.created", CafeCreatedEvent.class,
+            "cafe.summary-updated", CafeSummaryUpdatedEvent.class
+    );
+
+    private OutboxEvents() {
+    }
+
+    static String typeOf(Object event) {
+        for (Map.Entry<String, Class<?>> entry : TYPES.entrySet()) {
+            if (entry.getValue() == event.getClass()) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalArgumentException("Not an outbox event: " + event.getClass().getName());
+    }
+
+    // null for a type this node does not know, e.g. one added by a newer version
+    static Class<?> classOf(String type) {
+        return TYPES.get(type);
+    }
+}
@@ -0,0 +1,319 @@
+package com.csci201.project.outbox;
+
+import com.csci201.project.config.NodeIdentity;
+import com.csci201.project.journal.DerivedStateBootstrap;
+import com.csci201.project.journal.DerivedStateUpdater;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tails outbox_events by id and applies the events written by other nodes to this node's
+ * in-memory views, so the UserTrie, AvailabilityIndex and CafeStore follow writes made anywhere.
+ *
+ * Ids are allocated when a row is inserted but become visible when its transaction commits, so a
+ * lower id can show up after a higher one. Ids skipped over are kept as pending gaps and looked up
+ * again on every poll until they appear or app.outbox.gap-timeout-ms passes (rolled-back inserts
+ * leave gaps that never fill). After an outage the poller reads batch after batch until it is back
+ * at the head of the table; a node that has been cut off for longer than half the retention period
+ * reloads its views from the database instead, since the rows it missed may already be deleted.
+ */
+@Component
+public class OutboxPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxPoller.class);
+
+    private static final String SELECT_AFTER_SQL =
+            "SELECT id, event_type, payload, origin_node FROM outbox_events WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_IDS_SQL =
+            "SELECT id, event_type, payload, origin_node FROM outbox_events WHERE id IN (%s) ORDER BY id";
+
+    // How far below the head to look for in-flight ids when taking a starting position
+    private static final int GAP_SCAN_WINDOW = 1000;
+    private static final int MAX_PENDING_GAPS = 10_000;
+    private static final int GAP_LOOKUP_CHUNK = 500;
+    private static final int PURGE_CHUNK = 1000;
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getLong("id"), rs.getString("event_type"), rs.getString("payload"), rs.getString("origin_node"));
+
+    private record Row(long id, String eventType, String payload, String originNode) {
+    }
+
+    /**
+     * Where a node starts reading: the highest id it has accounted for, plus lower ids that were
+     * not visible yet (in-flight or rolled back) and must still be watched for.
+     */
+    public record Position(long lastId, List<Long> missingIds) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final NodeIdentity nodeIdentity;
+    private final DerivedStateUpdater updater;
+    private final DerivedStateBootstrap bootstrap;
+
+    private final Counter appliedCounter;
+    private final Counter ownCounter;
+    private final Counter failedCounter;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${app.outbox.gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    // Guarded by this
+    private boolean started;
+    private long cursor;
+    private final TreeMap<Long, Long> pendingGaps = new TreeMap<>(); // id -> when it was first skipped
+    private long lastSuccessfulPoll;
+
+    private volatile long headId;
+    private volatile long cursorSnapshot;
+    private volatile long lastCaughtUp = System.currentTimeMillis();
+    private volatile int pendingGapCount;
+
+    public OutboxPoller(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, NodeIdentity nodeIdentity,
+                        DerivedStateUpdater updater, @Lazy DerivedStateBootstrap bootstrap,
+                        MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.nodeIdentity = nodeIdentity;
+        this.updater = updater;
+        this.bootstrap = bootstrap;
+
+        this.appliedCounter = Counter.builder("outbox.events")
+                .tag("result", "applied")
+                .description("Outbox events from other nodes applied to the local views")
+                .register(meterRegistry);
+        this.ownCounter = Counter.builder("outbox.events")
+                .tag("result", "own")
+                .description("Outbox events written by this node (already applied locally)")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.events")
+                .tag("result", "failed")
+                .description("Outbox events that could not be decoded or applied")
+                .register(meterRegistry);
+
+        Gauge.builder("outbox.lag.events", this, p -> Math.max(0, p.headId - p.cursorSnapshot))
+                .description("Outbox rows at the head of the table not yet read by this node")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", this, OutboxPoller::lagSeconds)
+                .description("Seconds since this node last caught up with the head of the outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending.gaps", this, p -> p.pendingGapCount)
+                .description("Skipped outbox ids still being watched for late commits")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current head of the outbox. Read it in the same transaction as the data it should match
+     * (see DerivedStateBootstrap) so that every row at or below lastId is reflected in that data.
+     */
+    public Position currentPosition() {
+        if (!enabled) {
+            return new Position(0, List.of());
+        }
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events", Long.class);
+        if (max == null) {
+            return new Position(0, List.of());
+        }
+        long from = Math.max(0, max - GAP_SCAN_WINDOW);
+        List<Long> present = jdbcTemplate.queryForList(
+                "SELECT id FROM outbox_events WHERE id > ? ORDER BY id", Long.class, from);
+        List<Long> missing = new ArrayList<>();
+        long expected = from + 1;
+        for (long id : present) {
+            for (; expected < id; expected++) {
+                missing.add(expected);
+            }
+            expected = id + 1;
+        }
+        return new Position(max, missing);
+    }
+
+    /**
+     * Start (or restart) reading after position; called once the views match it
+     */
+    public synchronized void resumeFrom(Position position) {
+        long now = System.currentTimeMillis();
+        cursor = position.lastId();
+        pendingGaps.clear();
+        for (long id : position.missingIds()) {
+            pendingGaps.put(id, now);
+        }
+        pendingGapCount = pendingGaps.size();
+        cursorSnapshot = cursor;
+        headId = cursor;
+        lastSuccessfulPoll = now;
+        lastCaughtUp = now;
+        started = true;
+        log.info("Outbox poller for node {} starting after id {} ({} pending gaps)",
+                nodeIdentity.getId(), cursor, pendingGaps.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (!enabled || !started) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastSuccessfulPoll > Duration.ofHours(retentionHours).toMillis() / 2) {
+            log.warn("Outbox poller has not run for {} s; reloading views from the database",
+                    (now - lastSuccessfulPoll) / 1000);
+            bootstrap.resync();
+            return;
+        }
+        try {
+            int batches = 0;
+            List<Row> batch;
+            do {
+                batch = jdbcTemplate.query(SELECT_AFTER_SQL, ROW_MAPPER, cursor, batchSize);
+                for (Row row : batch) {
+                    skipTo(row.id(), now);
+                    cursor = row.id();
+                    apply(row);
+                }
+                batches++;
+            } while (batch.size() == batchSize && batches < maxBatchesPerPoll);
+
+            retryGaps(now);
+
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM outbox_events", Long.class);
+            headId = max != null ? max : 0;
+            cursorSnapshot = cursor;
+            if (cursor >= headId) {
+                lastCaughtUp = now;
+            }
+            lastSuccessfulPoll = now;
+        } catch (DataAccessException e) {
+            // Rows stay in the table; the next poll continues from the same cursor
+            log.warn("Outbox poll failed after id {}: {}", cursor, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete rows older than app.outbox.retention-hours, a chunk of ids at a time
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}",
+            initialDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Timestamp cutoff = Timestamp.from(Instant.now().minus(Duration.ofHours(retentionHours)));
+            Long upTo = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM outbox_events WHERE created_at < ?", Long.class, cutoff);
+            Long from = jdbcTemplate.queryForObject("SELECT MIN(id) FROM outbox_events", Long.class);
+            if (upTo == null || from == null) {
+                return;
+            }
+            int deleted = 0;
+            for (long start = from; start <= upTo; start += PURGE_CHUNK) {
+                deleted += jdbcTemplate.update("DELETE FROM outbox_events WHERE id >= ? AND id < ? AND id <= ?",
+                        start, start + PURGE_CHUNK, upTo);
+            }
+            log.info("Purged {} outbox rows up to id {}", deleted, upTo);
+        } catch (DataAccessException e) {
+            log.warn("Outbox cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    // Remember the ids between the cursor and id, which were not visible when we read past them
+    private void skipTo(long id, long now) {
+        for (long missing = cursor + 1; missing < id; missing++) {
+            if (pendingGaps.size() >= MAX_PENDING_GAPS) {
+                log.warn("Too many outbox gaps; ids {}-{} will not be watched", missing, id - 1);
+                break;
+            }
+            pendingGaps.put(missing, now);
+        }
+    }
+
+    private void retryGaps(long now) {
+        if (pendingGaps.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pendingGaps.keySet());
+        for (int i = 0; i < ids.size(); i += GAP_LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + GAP_LOOKUP_CHUNK));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            List<Row> late = jdbcTemplate.query(String.format(SELECT_IDS_SQL, placeholders), ROW_MAPPER,
+                    chunk.toArray());
+            for (Row row : late) {
+                pendingGaps.remove(row.id());
+                apply(row);
+            }
+        }
+        // Whatever is still missing after the timeout was rolled back (or its transaction ran unusually long)
+        Iterator<Map.Entry<Long, Long>> it = pendingGaps.entrySet().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().getValue() > gapTimeoutMs) {
+                it.remove();
+            }
+        }
+        pendingGapCount = pendingGaps.size();
+    }
+
+    private void apply(Row row) {
+        if (nodeIdentity.getId().equals(row.originNode())) {
+            ownCounter.increment();
+            return;
+        }
+        Class<?> type = OutboxEvents.classOf(row.eventType());
+        if (type == null) {
+            log.warn("Skipping outbox row {} of unknown type {}", row.id(), row.eventType());
+            failedCounter.increment();
+            return;
+        }
+        try {
+            updater.applyRemote(objectMapper.readValue(row.payload(), type));
+            appliedCounter.increment();
+        } catch (Exception e) {
+            log.warn("Could not apply outbox row {} ({}): {}", row.id(), row.eventType(), e.getMessage());
+            failedCounter.increment();
+        }
+    }
+
+    private double lagSeconds() {
+        if (headId <= cursorSnapshot) {
+            return 0;
+        }
+        return (System.currentTimeMillis() - lastCaughtUp) / 1000.0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.csci201.project.outbox;
+
+import com.csci201.project.config.NodeIdentity;
+import com.csci201.project.event.CafeCreatedEvent;
+import com.csci201.project.event.CafeSummaryUpdatedEvent;
+import com.csci201.project.event.FriendAddedEvent;
+import com.csci201.project.event.FriendRemovedEvent;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.event.UserRegisteredEvent;
+import com.csci201.project.event.UsernameChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Inserts every cafe, user, review and friend event into outbox_events. The listeners are synchronous,
+ * so the row is written inside the transaction that published the event and commits (or rolls
+ * back) together with the change itself; other nodes pick it up through their OutboxPoller.
+ */
+@Component
+public class OutboxWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (event_type, payload, origin_node) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final NodeIdentity nodeIdentity;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, NodeIdentity nodeIdentity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.nodeIdentity = nodeIdentity;
+    }
+
+    @EventListener
+    public void onCafeCreated(CafeCreatedEvent event) {
+        write(event);
+    }
+
+    @EventListener
+    public void onCafeSummaryUpdated(CafeSummaryUpdatedEvent event) {
+        write(event);
+    }
+
+    @EventListener
+    public void onReviewCreated(ReviewCreatedEvent event) {
+        write(event);
+    }
+
+    @EventListener
+    public void onReviewDeleted(ReviewDeletedEvent event) {
+        write(event);
+    }
+
+    @EventListener
+    public void onUserRegistered(UserRegisteredEvent event) {
+        write(event);
+    }
+
+    @EventListener
+    public void onUsernameChanged(UsernameChangedEvent event) {
+        write(event);
+    }
+
+    @EventListener
+    public void onFriendAdded(FriendAddedEvent event) {
+        write(event);
+    }
+
+    @EventListener
+    public void onFriendRemoved(FriendRemovedEvent event) {
+        write(event);
+    }
+
+    private void write(Object event) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Still written, but a crash between the change and this insert would lose it for other nodes
+            log.warn("{} published outside a transaction; outbox row is not atomic with the change",
+                    event.getClass().getSimpleName());
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode " + event.getClass().getSimpleName(), e);
+        }
+        jdbcTemplate.update(INSERT_SQL, OutboxEvents.typeOf(event), payload, nodeIdentity.getId());
+    }
+}
@@ -0,0 +1,71 @@
+package com.csci201.project.recommend;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Result of one recommendation build: for every cafe, its most similar cafes (by id) and the
+ * similarities, most similar first, packed into CSR arrays. Immutable once built.
+ */
+final class ItemNeighbors {
+
+    static final ItemNeighbors EMPTY = new ItemNeighbors(new int[0], new int[]{0}, new int[0], new float[0],
+            Instant.EPOCH);
+
+    private final Map<Integer, Integer> indexById;
+    private final int[] ptr;
+    final int[] neighborIds;
+    final float[] similarities;
+    final Instant builtAt;
+
+    private ItemNeighbors(int[] cafeIds, int[] ptr, int[] neighborIds, float[] similarities, Instant builtAt) {
+        this.indexById = new HashMap<>(cafeIds.length * 2);
+        for (int i = 0; i < cafeIds.length; i++) {
+            indexById.put(cafeIds[i], i);
+        }
+        this.ptr = ptr;
+        this.neighborIds = neighborIds;
+        this.similarities = similarities;
+        this.builtAt = builtAt;
+    }
+
+    /**
+     * Pack the K-wide per-cafe slices written by ItemSimilarityTask, translating indexes to cafe ids
+     */
+    static ItemNeighbors pack(RatingMatrix matrix, int k, int[] neighbors, float[] similarities, int[] counts,
+                              Instant builtAt) {
+        int[] ptr = new int[matrix.cafes + 1];
+        for (int c = 0; c < matrix.cafes; c++) {
+            ptr[c + 1] = ptr[c] + counts[c];
+        }
+        int[] packedIds = new int[ptr[matrix.cafes]];
+        float[] packedSimilarities = new float[packedIds.length];
+        for (int c = 0; c < matrix.cafes; c++) {
+            for (int n = 0; n < counts[c]; n++) {
+                packedIds[ptr[c] + n] = matrix.cafeIds[neighbors[c * k + n]];
+                packedSimilarities[ptr[c] + n] = similarities[c * k + n];
+            }
+        }
+        return new ItemNeighbors(matrix.cafeIds, ptr, packedIds, packedSimilarities, builtAt);
+    }
+
+    int cafes() {
+        return ptr.length - 1;
+    }
+
+    int size() {
+        return neighborIds.length;
+    }
+
+    // First neighbor position of the cafe; with end() bounds its slice. -1 for a cafe without neighbors
+    int start(int cafeId) {
+        Integer index = indexById.get(cafeId);
+        return index == null ? -1 : ptr[index];
+    }
+
+    int end(int cafeId) {
+        Integer index = indexById.get(cafeId);
+        return index == null ? -1 : ptr[index + 1];
+    }
+}
@@ -0,0 +1,109 @@
+package com.csci201.project.recommend;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join computation of each cafe's top-K most similar cafes (adjusted cosine over a
+ * RatingMatrix). Cafes are split into ranges; a leaf walks every user who rated a cafe in its
+ * range and accumulates dot products with that user's other cafes into a dense scratch array
+ * it owns, so leaves share nothing but the read-only matrix. Each cafe writes its neighbors,
+ * most similar first, into its own K-wide slice of the output arrays.
+ */
+class ItemSimilarityTask extends RecursiveAction {
+
+    private final RatingMatrix matrix;
+    private final int k;
+    private final int minCoRaters;
+    private final int start;
+    private final int end;
+    private final int threshold;
+    private final int[] neighbors;       // cafe c's neighbors are at [c * k, c * k + counts[c])
+    private final float[] similarities;
+    private final int[] counts;
+
+    ItemSimilarityTask(RatingMatrix matrix, int k, int minCoRaters, int parallelism,
+                       int[] neighbors, float[] similarities, int[] counts) {
+        this(matrix, k, minCoRaters, 0, matrix.cafes, Math.max(1, matrix.cafes / Math.max(1, parallelism * 8)),
+                neighbors, similarities, counts);
+    }
+
+    private ItemSimilarityTask(RatingMatrix matrix, int k, int minCoRaters, int start, int end, int threshold,
+                               int[] neighbors, float[] similarities, int[] counts) {
+        this.matrix = matrix;
+        this.k = k;
+        this.minCoRaters = minCoRaters;
+        this.start = start;
+        this.end = end;
+        this.threshold = threshold;
+        this.neighbors = neighbors;
+        this.similarities = similarities;
+        this.counts = counts;
+    }
+
+    @Override
+    protected void compute() {
+        if (end - start <= threshold) {
+            scan();
+            return;
+        }
+        int mid = (start + end) >>> 1;
+        invokeAll(new ItemSimilarityTask(matrix, k, minCoRaters, start, mid, threshold, neighbors, similarities, counts),
+                new ItemSimilarityTask(matrix, k, minCoRaters, mid, end, threshold, neighbors, similarities, counts));
+    }
+
+    private void scan() {
+        // Scratch reused for every cafe in the range; only touched entries are reset
+        double[] dots = new double[matrix.cafes];
+        int[] coRaters = new int[matrix.cafes];
+        int[] touched = new int[matrix.cafes];
+
+        for (int cafe = start; cafe < end; cafe++) {
+            int touchedCount = 0;
+            for (int a = matrix.cafePtr[cafe]; a < matrix.cafePtr[cafe + 1]; a++) {
+                int user = matrix.cafeUsers[a];
+                float value = matrix.cafeValues[a];
+                for (int b = matrix.userPtr[user]; b < matrix.userPtr[user + 1]; b++) {
+                    int other = matrix.userCafes[b];
+                    if (other == cafe) {
+                        continue;
+                    }
+                    if (coRaters[other]++ == 0) {
+                        touched[touchedCount++] = other;
+                    }
+                    dots[other] += (double) value * matrix.userValues[b];
+                }
+            }
+
+            int base = cafe * k;
+            int count = 0;
+            double norm = matrix.cafeNorms[cafe];
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                double denominator = norm * matrix.cafeNorms[other];
+                if (coRaters[other] >= minCoRaters && denominator > 0) {
+                    float similarity = (float) (dots[other] / denominator);
+                    // Only positive neighbors: a cafe unlike one the user rated says little about the user
+                    if (similarity > 0 && (count < k || similarity > similarities[base + count - 1])) {
+                        count = insert(base, count, other, similarity);
+                    }
+                }
+                dots[other] = 0;
+                coRaters[other] = 0;
+            }
+            counts[cafe] = count;
+        }
+    }
+
+    // Insert into the slice kept sorted by similarity, dropping the last entry when it is full
+    private int insert(int base, int count, int other, float similarity) {
+        int position = Math.min(count, k - 1);
+        while (position > 0 && similarities[base + position - 1] < similarity) {
+            neighbors[base + position] = neighbors[base + position - 1];
+            similarities[base + position] = similarities[base + position - 1];
+            position--;
+        }
+        neighbors[base + position] = other;
+        similarities[base + position] = similarity;
+        return Math.min(count + 1, k);
+    }
+}
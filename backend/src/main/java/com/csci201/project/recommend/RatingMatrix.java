@@ -0,0 +1,162 @@
+package com.csci201.project.recommend;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sparse user x cafe rating matrix in compressed sparse row (CSR) form, held twice: by user
+ * (row u holds the cafes user u rated) and by cafe (the transpose). Each user's ratings are
+ * centered on that user's mean, so generous and harsh reviewers compare fairly and the cosine
+ * between two cafe columns is the adjusted cosine used for item-item similarity.
+ * Users and cafes are mapped to dense indexes; several reviews of one cafe by one user are averaged.
+ */
+final class RatingMatrix {
+
+    final int users;
+    final int cafes;
+    final int[] cafeIds;        // dense cafe index -> cafe id
+
+    // By user: ratings of user u are userCafes/userValues[userPtr[u] .. userPtr[u + 1]), sorted by cafe
+    final int[] userPtr;
+    final int[] userCafes;
+    final float[] userValues;
+
+    // By cafe: ratings of cafe c are cafeUsers/cafeValues[cafePtr[c] .. cafePtr[c + 1]), sorted by user
+    final int[] cafePtr;
+    final int[] cafeUsers;
+    final float[] cafeValues;
+    final double[] cafeNorms;   // Euclidean norm of each centered cafe column
+
+    private RatingMatrix(int users, int[] cafeIds, int[] userPtr, int[] userCafes, float[] userValues) {
+        this.users = users;
+        this.cafes = cafeIds.length;
+        this.cafeIds = cafeIds;
+        this.userPtr = userPtr;
+        this.userCafes = userCafes;
+        this.userValues = userValues;
+
+        // Transpose with a counting pass; walking users in order keeps every cafe column sorted by user
+        int nnz = userCafes.length;
+        cafePtr = new int[cafes + 1];
+        for (int k = 0; k < nnz; k++) {
+            cafePtr[userCafes[k] + 1]++;
+        }
+        for (int c = 0; c < cafes; c++) {
+            cafePtr[c + 1] += cafePtr[c];
+        }
+        cafeUsers = new int[nnz];
+        cafeValues = new float[nnz];
+        int[] next = Arrays.copyOf(cafePtr, cafes);
+        for (int u = 0; u < users; u++) {
+            for (int k = userPtr[u]; k < userPtr[u + 1]; k++) {
+                int slot = next[userCafes[k]]++;
+                cafeUsers[slot] = u;
+                cafeValues[slot] = userValues[k];
+            }
+        }
+        cafeNorms = new double[cafes];
+        for (int c = 0; c < cafes; c++) {
+            double sum = 0;
+            for (int k = cafePtr[c]; k < cafePtr[c + 1]; k++) {
+                sum += (double) cafeValues[k] * cafeValues[k];
+            }
+            cafeNorms[c] = Math.sqrt(sum);
+        }
+    }
+
+    int nonZeros() {
+        return userCafes.length;
+    }
+
+    static final class Builder {
+
+        private int size;
+        private int[] userIndexes = new int[1024];
+        private int[] cafeIndexes = new int[1024];
+        private float[] ratings = new float[1024];
+
+        private final Map<Long, Integer> userIndexById = new HashMap<>();
+        private final Map<Integer, Integer> cafeIndexById = new HashMap<>();
+        private int[] cafeIds = new int[16];
+
+        void add(long userId, int cafeId, double rating) {
+            if (size == ratings.length) {
+                int capacity = size * 2;
+                userIndexes = Arrays.copyOf(userIndexes, capacity);
+                cafeIndexes = Arrays.copyOf(cafeIndexes, capacity);
+                ratings = Arrays.copyOf(ratings, capacity);
+            }
+            userIndexes[size] = userIndexById.computeIfAbsent(userId, id -> userIndexById.size());
+            cafeIndexes[size] = cafeIndexById.computeIfAbsent(cafeId, id -> {
+                int index = cafeIndexById.size();
+                if (index == cafeIds.length) {
+                    cafeIds = Arrays.copyOf(cafeIds, index * 2);
+                }
+                cafeIds[index] = id;
+                return index;
+            });
+            ratings[size] = (float) rating;
+            size++;
+        }
+
+        RatingMatrix build() {
+            int users = userIndexById.size();
+
+            // Bucket the reviews by user
+            int[] ptr = new int[users + 1];
+            for (int i = 0; i < size; i++) {
+                ptr[userIndexes[i] + 1]++;
+            }
+            for (int u = 0; u < users; u++) {
+                ptr[u + 1] += ptr[u];
+            }
+            int[] order = new int[size];
+            int[] next = Arrays.copyOf(ptr, users);
+            for (int i = 0; i < size; i++) {
+                order[next[userIndexes[i]]++] = i;
+            }
+
+            // Sort each user's row by cafe, average repeated cafes and center on the user's mean
+            int[] rowPtr = new int[users + 1];
+            int[] cols = new int[size];
+            float[] values = new float[size];
+            int nnz = 0;
+            long[] keys = new long[0];
+            for (int u = 0; u < users; u++) {
+                int length = ptr[u + 1] - ptr[u];
+                if (keys.length < length) {
+                    keys = new long[Math.max(length, keys.length * 2)];
+                }
+                for (int k = 0; k < length; k++) {
+                    int review = order[ptr[u] + k];
+                    keys[k] = ((long) cafeIndexes[review] << 32) | review;
+                }
+                Arrays.sort(keys, 0, length);
+
+                int rowStart = nnz;
+                double rowSum = 0;
+                for (int k = 0; k < length; ) {
+                    int cafe = (int) (keys[k] >>> 32);
+                    double sum = 0;
+                    int count = 0;
+                    for (; k < length && (int) (keys[k] >>> 32) == cafe; k++) {
+                        sum += ratings[(int) keys[k]];
+                        count++;
+                    }
+                    cols[nnz] = cafe;
+                    values[nnz] = (float) (sum / count);
+                    rowSum += values[nnz];
+                    nnz++;
+                }
+                float mean = (float) (rowSum / (nnz - rowStart));
+                for (int k = rowStart; k < nnz; k++) {
+                    values[k] -= mean;
+                }
+                rowPtr[u + 1] = nnz;
+            }
+            return new RatingMatrix(users, Arrays.copyOf(cafeIds, cafeIndexById.size()), rowPtr,
+                    Arrays.copyOf(cols, nnz), Arrays.copyOf(values, nnz));
+        }
+    }
+}
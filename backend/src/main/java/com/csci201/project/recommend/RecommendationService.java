@@ -0,0 +1,211 @@
+package com.csci201.project.recommend;
+
+import com.csci201.project.dto.CafeDTO;
+import com.csci201.project.store.CafeSort;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.util.StreamingJdbc;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Item-item collaborative filtering. A background job streams every review into a RatingMatrix,
+ * computes each cafe's top app.recommend.neighbors most similar cafes on its own fork-join pool
+ * and swaps the packed result in. Recommending for a user then only reads that user's reviews
+ * (one indexed query) and walks the neighbor lists of the cafes they rated, so it does not
+ * depend on the total number of reviews.
+ *
+ * The model is rebuilt every app.recommend.rebuild-interval-ms; reviews written in between still
+ * count for the user asking (their ratings are read live), just not for the similarities.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final String USER_RATINGS_SQL = "SELECT r.cafe_id, r.rating FROM reviews r "
+            + "JOIN users u ON u.id = r.user_id WHERE u.username = ?";
+
+    private final CafeStore cafeStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+    private final Timer buildTimer;
+
+    private final boolean enabled;
+    private final int neighborsPerCafe;
+    private final int minCoRaters;
+
+    private volatile ItemNeighbors model = ItemNeighbors.EMPTY;
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    /**
+     * A recommended cafe: source is "similar" when scored from the user's own reviews, or
+     * "popular" when filled in by Bayesian average for users the model knows too little about
+     */
+    public record RecommendedCafe(CafeDTO cafe, double score, String source) {
+    }
+
+    public RecommendationService(CafeStore cafeStore, JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                 @Value("${spring.datasource.url}") String datasourceUrl,
+                                 @Value("${app.recommend.enabled:true}") boolean enabled,
+                                 @Value("${app.recommend.neighbors:20}") int neighborsPerCafe,
+                                 @Value("${app.recommend.min-co-raters:2}") int minCoRaters,
+                                 @Value("${app.recommend.parallelism:0}") int parallelism) {
+        this.cafeStore = cafeStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = StreamingJdbc.template(dataSource, datasourceUrl);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.neighborsPerCafe = neighborsPerCafe;
+        this.minCoRaters = minCoRaters;
+        // Own pool, so a build does not compete with parallel streams on the common pool; 0 means one per core
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+
+        this.buildTimer = Timer.builder("recommend.build")
+                .description("Time to rebuild the item-item similarity model")
+                .register(meterRegistry);
+        Gauge.builder("recommend.model.cafes", this, service -> service.model.cafes())
+                .description("Cafes in the current similarity model")
+                .register(meterRegistry);
+        Gauge.builder("recommend.model.neighbors", this, service -> service.model.size())
+                .description("Neighbor entries kept in the current similarity model")
+                .register(meterRegistry);
+        Gauge.builder("recommend.model.age.seconds", this,
+                        service -> Instant.now().getEpochSecond() - service.model.builtAt.getEpochSecond())
+                .description("Seconds since the similarity model was built")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommend.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.recommend.initial-delay-ms:30000}")
+    public void rebuild() {
+        if (!enabled || !building.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            RatingMatrix.Builder builder = new RatingMatrix.Builder();
+            readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(
+                    "SELECT user_id, cafe_id, rating FROM reviews",
+                    (RowCallbackHandler) rs -> builder.add(rs.getLong(1), rs.getInt(2), rs.getDouble(3))));
+            RatingMatrix matrix = builder.build();
+            long loaded = System.nanoTime();
+
+            int[] neighbors = new int[matrix.cafes * neighborsPerCafe];
+            float[] similarities = new float[neighbors.length];
+            int[] counts = new int[matrix.cafes];
+            pool.invoke(new ItemSimilarityTask(matrix, neighborsPerCafe, minCoRaters, pool.getParallelism(),
+                    neighbors, similarities, counts));
+            long computed = System.nanoTime();
+
+            long elapsed = computed - start;
+            model = ItemNeighbors.pack(matrix, neighborsPerCafe, neighbors, similarities, counts, Instant.now());
+            buildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Built recommendation model: {} users, {} cafes, {} ratings, {} neighbors; "
+                            + "load {} ms, similarities {} ms on {} threads",
+                    matrix.users, matrix.cafes, matrix.nonZeros(), model.size(),
+                    TimeUnit.NANOSECONDS.toMillis(loaded - start), TimeUnit.NANOSECONDS.toMillis(computed - loaded),
+                    pool.getParallelism());
+        } catch (RuntimeException e) {
+            log.warn("Could not build recommendation model: {}", e.toString());
+        } finally {
+            building.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Up to limit cafes the user has not reviewed, best predicted rating first
+     */
+    public List<RecommendedCafe> recommend(String username, int limit) {
+        Map<Integer, double[]> rated = new HashMap<>(); // cafe id -> {sum, count}
+        jdbcTemplate.query(USER_RATINGS_SQL, (RowCallbackHandler) rs -> {
+            double[] stats = rated.computeIfAbsent(rs.getInt(1), id -> new double[2]);
+            stats[0] += rs.getDouble(2);
+            stats[1]++;
+        }, username);
+
+        double mean = rated.values().stream().mapToDouble(s -> s[0] / s[1]).average().orElse(0);
+
+        // Predicted rating = user mean + similarity-weighted deviation of the user's ratings of the neighbors
+        ItemNeighbors current = model;
+        Map<Integer, double[]> scores = new HashMap<>(); // candidate id -> {weighted deviation, total weight}
+        for (Map.Entry<Integer, double[]> entry : rated.entrySet()) {
+            int start = current.start(entry.getKey());
+            if (start < 0) {
+                continue;
+            }
+            double deviation = entry.getValue()[0] / entry.getValue()[1] - mean;
+            for (int n = start; n < current.end(entry.getKey()); n++) {
+                int candidate = current.neighborIds[n];
+                if (rated.containsKey(candidate)) {
+                    continue;
+                }
+                double[] score = scores.computeIfAbsent(candidate, id -> new double[2]);
+                score[0] += current.similarities[n] * deviation;
+                score[1] += current.similarities[n];
+            }
+        }
+
+        // Highest prediction first; among equal predictions, the one backed by more similarity
+        List<Map.Entry<Integer, double[]>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Comparator.comparingDouble((Map.Entry<Integer, double[]> e) -> e.getValue()[0] / e.getValue()[1])
+                .thenComparingDouble(e -> e.getValue()[1])
+                .reversed());
+        List<RecommendedCafe> result = new ArrayList<>(limit);
+        for (Map.Entry<Integer, double[]> entry : ranked) {
+            if (result.size() >= limit) {
+                break;
+            }
+            double predicted = Math.max(0, Math.min(5, mean + entry.getValue()[0] / entry.getValue()[1]));
+            // Cafes removed since the last build are skipped
+            cafeStore.get(entry.getKey()).ifPresent(cafe -> result.add(new RecommendedCafe(cafe, predicted, "similar")));
+        }
+
+        if (result.size() < limit) {
+            // New users, or users whose cafes have no neighbors yet: fill with well-reviewed cafes
+            Set<Integer> seen = new HashSet<>(rated.keySet());
+            result.forEach(r -> seen.add(r.cafe().getCafeId()));
+            for (CafeDTO cafe : cafeStore.find(null, null, null, CafeSort.BAYESIAN, limit + seen.size())) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (seen.add(cafe.getCafeId())) {
+                    result.add(new RecommendedCafe(cafe, cafe.getBayesianRating(), "popular"));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -3,22 +3,34 @@ package com.csci201.project.repository;
 import com.csci201.project.model.Review;
 import com.csci201.project.model.User;
 import com.csci201.project.model.Cafe;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByUser(User user);
     List<Review> findByCafe(Cafe cafe);
+    // Reviewer and cafe are fetched in the same query instead of one select per distinct user or cafe
+    @EntityGraph(attributePaths = {"user", "cafe"})
     List<Review> findByUserId(Long userId);
+    @EntityGraph(attributePaths = {"user", "cafe"})
     List<Review> findByCafeCafeId(Integer cafeId);
 
     long countByUserId(Long userId);
 
+    /**
+     * Review counts for several users at once: rows of {userId, count}; users without reviews are absent
+     */
+    @Query("SELECT r.user.id, COUNT(r) FROM Review r WHERE r.user.id IN :userIds GROUP BY r.user.id")
+    List<Object[]> countByUserIds(@Param("userIds") Collection<Long> userIds);
+
     /**
      * Calculate the average rating for a specific cafe from all reviews
      */
@@ -30,4 +42,37 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     @Query("SELECT COUNT(r) FROM Review r WHERE r.cafe.cafeId = :cafeId")
     Long countReviewsByCafeId(@Param("cafeId") Integer cafeId);
+
+    /**
+     * Number of reviews per cafe and rating value: rows of {cafeId, rating, count}
+     */
+    @Query("SELECT r.cafe.cafeId, r.rating, COUNT(r) FROM Review r GROUP BY r.cafe.cafeId, r.rating")
+    List<Object[]> getRatingCountsByCafe();
+
+    /**
+     * Reviews of a cafe written by friends of the given user, newest first. Driven from the user's
+     * user_friends rows, with one unique-index probe (user_id, cafe_id) per friend, so the cost
+     * grows with the friend count, not with how many reviews the cafe has.
+     */
+    @Query(value = "SELECT r.id AS id, r.rating AS rating, r.comment AS comment, r.created_at AS createdAt, "
+            + "u.id AS userId, u.username AS username "
+            + "FROM users me "
+            + "JOIN user_friends f ON f.user_id = me.id "
+            + "JOIN reviews r ON r.user_id = f.friend_id AND r.cafe_id = :cafeId "
+            + "JOIN users u ON u.id = r.user_id "
+            + "WHERE me.username = :username "
+            + "ORDER BY r.created_at DESC", nativeQuery = true)
+    List<FriendReview> findFriendReviewsForCafe(@Param("username") String username, @Param("cafeId") Integer cafeId);
+
+    /**
+     * Row of findFriendReviewsForCafe
+     */
+    interface FriendReview {
+        Long getId();
+        Double getRating();
+        String getComment();
+        LocalDateTime getCreatedAt();
+        Long getUserId();
+        String getUsername();
+    }
 }
@@ -0,0 +1,113 @@
+package com.csci201.project.security;
+
+import com.csci201.project.security.AdaptiveConcurrencyLimiter.Group;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load once a group of endpoints is at its adaptive concurrency limit: the request gets a
+ * 503 with Retry-After right away instead of waiting for a thread. Added to the security chain
+ * in {@link SecurityConfig} (not registered as a bean, so the servlet container does not run it twice).
+ *
+ * Async requests (the auth endpoints return CompletableFuture) keep their slot until the async
+ * processing completes, so their latency includes the time spent on the hashing pool.
+ */
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final String BUSY_BODY = "{\"success\":false,\"error\":\"Server is busy, please try again shortly\"}";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdaptiveConcurrencyFilter(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Group group = limiter.isEnabled() ? limiter.classify(request) : null;
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        GradientLimit limit = limiter.limit(group);
+        int inflightAtStart = limit.getInflight();
+        if (!limit.tryAcquire()) {
+            limiter.recordRejected(group);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(BUSY_BODY);
+            return;
+        }
+
+        Release release = new Release(limit, System.nanoTime(), inflightAtStart, response);
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run(failed);
+            }
+        }
+    }
+
+    // Returns the slot exactly once, whichever of complete/timeout/error fires first
+    private static final class Release implements AsyncListener {
+        private final GradientLimit limit;
+        private final long startNanos;
+        private final int inflightAtStart;
+        private final HttpServletResponse response;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Release(GradientLimit limit, long startNanos, int inflightAtStart, HttpServletResponse response) {
+            this.limit = limit;
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+            this.response = response;
+        }
+
+        void run(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - startNanos, inflightAtStart,
+                        failed || response.getStatus() >= 500);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Async restarted on the same request: stay registered for the new cycle
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
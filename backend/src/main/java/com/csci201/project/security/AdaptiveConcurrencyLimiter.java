@@ -0,0 +1,101 @@
+package com.csci201.project.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Separate adaptive concurrency limits for reads, writes and the auth endpoints, so a burst of
+ * logins or slow writes cannot take the slots that map reads need. Requests over a group's
+ * limit are rejected by {@link AdaptiveConcurrencyFilter} instead of queueing in Tomcat.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Group {
+        READ, WRITE, AUTH;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<Group, GradientLimit> limits = new EnumMap<>(Group.class);
+    private final Map<Group, Counter> rejected = new EnumMap<>(Group.class);
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${app.concurrency.enabled:true}") boolean enabled,
+                                      @Value("${app.concurrency.min-limit:4}") int minLimit,
+                                      @Value("${app.concurrency.tolerance:1.5}") double tolerance,
+                                      @Value("${app.concurrency.smoothing:0.2}") double smoothing,
+                                      @Value("${app.concurrency.read.initial-limit:40}") int readInitial,
+                                      @Value("${app.concurrency.read.max-limit:150}") int readMax,
+                                      @Value("${app.concurrency.write.initial-limit:20}") int writeInitial,
+                                      @Value("${app.concurrency.write.max-limit:60}") int writeMax,
+                                      @Value("${app.concurrency.auth.initial-limit:10}") int authInitial,
+                                      @Value("${app.concurrency.auth.max-limit:40}") int authMax) {
+        this.enabled = enabled;
+        limits.put(Group.READ, new GradientLimit(readInitial, minLimit, readMax, tolerance, smoothing));
+        limits.put(Group.WRITE, new GradientLimit(writeInitial, minLimit, writeMax, tolerance, smoothing));
+        limits.put(Group.AUTH, new GradientLimit(authInitial, minLimit, authMax, tolerance, smoothing));
+
+        for (Group group : Group.values()) {
+            GradientLimit limit = limits.get(group);
+            Gauge.builder("http.concurrency.limit", limit, GradientLimit::getLimit)
+                    .tag("group", group.tag())
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("http.concurrency.inflight", limit, GradientLimit::getInflight)
+                    .tag("group", group.tag())
+                    .description("Requests currently holding a concurrency slot")
+                    .register(meterRegistry);
+            rejected.put(group, Counter.builder("http.concurrency.rejected")
+                    .tag("group", group.tag())
+                    .description("Requests rejected with 503 because the group was at its limit")
+                    .register(meterRegistry));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Which pool a request draws from, or null for requests that are never limited (actuator, static files,
+     * streams, exports)
+     */
+    public Group classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        // Event streams stay open for minutes; ReviewStreamHub caps them separately
+        if (path.endsWith("/stream")) {
+            return null;
+        }
+        // Admin exports run as long as the table takes to read; their latency would drag down the READ limit
+        if (path.startsWith("/api/admin/export/")) {
+            return null;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return Group.AUTH;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? Group.READ : Group.WRITE;
+    }
+
+    GradientLimit limit(Group group) {
+        return limits.get(group);
+    }
+
+    void recordRejected(Group group) {
+        rejected.get(group).increment();
+    }
+}
@@ -0,0 +1,32 @@
+package com.csci201.project.security;
+
+import com.csci201.project.util.KeyedTokenBuckets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-username and per-IP token buckets for the auth endpoints.
+ * Each check returns 0 when allowed, otherwise the Retry-After value in seconds.
+ */
+@Component
+public class AuthThrottle {
+
+    private final KeyedTokenBuckets usernameBuckets;
+    private final KeyedTokenBuckets ipBuckets;
+
+    public AuthThrottle(@Value("${auth.throttle.username.capacity:5}") double usernameCapacity,
+                        @Value("${auth.throttle.username.refill-per-second:0.2}") double usernameRefill,
+                        @Value("${auth.throttle.ip.capacity:20}") double ipCapacity,
+                        @Value("${auth.throttle.ip.refill-per-second:2}") double ipRefill) {
+        this.usernameBuckets = new KeyedTokenBuckets(usernameCapacity, usernameRefill);
+        this.ipBuckets = new KeyedTokenBuckets(ipCapacity, ipRefill);
+    }
+
+    public long checkIp(String remoteAddress) {
+        return ipBuckets.tryAcquire(remoteAddress);
+    }
+
+    public long checkUsername(String username) {
+        return username == null ? 0 : usernameBuckets.tryAcquire(username.toLowerCase());
+    }
+}
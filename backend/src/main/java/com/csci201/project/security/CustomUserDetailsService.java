@@ -3,18 +3,25 @@ package com.csci201.project.security;
 import com.csci201.project.model.User;
 import com.csci201.project.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
 
+    // Accounts granted ROLE_ADMIN (admin export and stats endpoints)
+    @Value("${app.admin.usernames:}")
+    private String[] adminUsernames;
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -24,8 +31,14 @@ public class CustomUserDetailsService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getUsername())
                 .password(user.getPassword())
-                .authorities("ROLE_USER")
+                .authorities(isAdmin(user.getUsername())
+                        ? new String[]{"ROLE_USER", "ROLE_ADMIN"}
+                        : new String[]{"ROLE_USER"})
                 .build();
     }
+
+    private boolean isAdmin(String username) {
+        return Arrays.stream(adminUsernames).anyMatch(admin -> admin.trim().equals(username));
+    }
 }
 
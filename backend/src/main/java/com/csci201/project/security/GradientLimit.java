@@ -0,0 +1,107 @@
+package com.csci201.project.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows observed latency (a gradient limiter in the style of TCP Vegas):
+ * a slow-moving average of request latency is the baseline, and the limit is scaled by
+ * baseline / recent latency, so it shrinks as soon as requests start queueing somewhere
+ * (usually at the database) and grows back by about sqrt(limit) per sample while latency is flat.
+ * Failed requests cut the limit multiplicatively, as in AIMD.
+ */
+class GradientLimit {
+
+    // Weight of a new sample in the baseline average (about the last 500 samples)
+    private static final double BASELINE_WEIGHT = 0.002;
+    private static final double RECENT_WEIGHT = 0.1;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double FAILURE_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    // Guarded by this
+    private double limit;
+    private double baselineRttNanos;
+    private double recentRttNanos;
+
+    private volatile int currentLimit;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.currentLimit = (int) limit;
+    }
+
+    /**
+     * Take a slot, or return false straight away when the limit is reached
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give the slot back. inflightAtStart is the number of requests running when this one began.
+     */
+    void release(long rttNanos, int inflightAtStart, boolean failed) {
+        inflight.decrementAndGet();
+        update(rttNanos, inflightAtStart, failed);
+    }
+
+    int getLimit() {
+        return currentLimit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inflightAtStart, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * FAILURE_BACKOFF);
+            currentLimit = (int) limit;
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (baselineRttNanos == 0) {
+            baselineRttNanos = rttNanos;
+            recentRttNanos = rttNanos;
+            return;
+        }
+        recentRttNanos += (rttNanos - recentRttNanos) * RECENT_WEIGHT;
+        baselineRttNanos += (rttNanos - baselineRttNanos) * BASELINE_WEIGHT;
+
+        // After a slow period the baseline lags behind; let it come down quickly once latency recovers
+        if (baselineRttNanos > recentRttNanos * 2) {
+            baselineRttNanos *= 0.95;
+        }
+
+        // Far below the limit the latency says nothing about it, so do not let it grow unbounded
+        if (inflightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRttNanos / recentRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, limit));
+        currentLimit = (int) limit;
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.CorsFilter;
 
 import java.util.Arrays;
 import java.util.List;
@@ -33,6 +34,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -60,6 +64,8 @@ public class SecurityConfig {
                 .anyRequest().permitAll()  // Allow all requests, method-level security will handle authorization
             )
             .authenticationProvider(authenticationProvider())
+            // Shed load right after CORS handling (so 503s still carry CORS headers) and before the JWT lookup
+            .addFilterAfter(new AdaptiveConcurrencyFilter(concurrencyLimiter), CorsFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -0,0 +1,23 @@
+package com.csci201.project.store;
+
+/**
+ * Orderings supported by CafeStore.find.
+ */
+public enum CafeSort {
+    RATING,   // highest average rating first
+    BAYESIAN, // highest Bayesian average first, so a few reviews count for less than many
+    PRICE,    // cheapest first
+    NAME;     // alphabetical, case-insensitive
+
+    // Parse the ?sort= request parameter; null when absent
+    public static CafeSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort '" + value + "', expected rating, bayesian, price or name");
+        }
+    }
+}
@@ -0,0 +1,748 @@
+package com.csci201.project.store;
+
+import com.csci201.project.dto.CafeCard;
+import com.csci201.project.dto.CafeDTO;
+import com.csci201.project.dto.CafeMarker;
+import com.csci201.project.event.CafeCreatedEvent;
+import com.csci201.project.event.CafeSummaryUpdatedEvent;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.model.Cafe;
+import com.csci201.project.repository.CafeRepository;
+import com.csci201.project.repository.ReviewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Read-optimized copy of the cafes table kept in struct-of-arrays form: one primitive array per
+ * column, indexed by row. List, filter and sort requests scan these arrays instead of
+ * materializing JPA entities. Ratings are kept as a running sum and count per cafe and are
+ * updated from review events, so no AVG query is needed on reads. Each cafe also keeps a
+ * histogram of its ratings in half-star buckets (0, 0.5, ..., 5), and the totals over all
+ * cafes are kept too, so the Bayesian average used for ranking is O(1) per cafe.
+ *
+ * Names and tag strings repeat across cafes and are dictionary-encoded; each tag also gets a
+ * bit in a per-row long so tag filters are a mask test. Rows are also bucketed into a grid of
+ * roughly 30 m cells, so "what is near this point" touches a handful of cells, not every row.
+ */
+@Component
+public class CafeStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CafeStore.class);
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Bit 63 marks rows with a tag that did not get its own bit
+    private static final int MAX_TAG_BITS = 63;
+    private static final long OVERFLOW_TAG_BIT = 1L << MAX_TAG_BITS;
+
+    // Grid cell side in degrees (about 33 m of latitude, less of longitude away from the equator)
+    private static final double GRID_CELL_DEGREES = 0.0003;
+
+    // Half-star buckets 0, 0.5, ..., 5
+    public static final int HISTOGRAM_BUCKETS = 11;
+
+    private final CafeRepository cafeRepository;
+    private final ReviewRepository reviewRepository;
+
+    // How many reviews at the overall mean every cafe is assumed to start with when ranking by Bayesian average
+    @Value("${app.cafes.bayesian-prior-weight:5}")
+    private double bayesianPriorWeight = 5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, guarded by lock
+    private int size;
+    private int[] cafeIds;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] prices;
+    private long[] ownerIds;
+    private double[] ratingSums;
+    private int[] reviewCounts;
+    private int[] histograms; // HISTOGRAM_BUCKETS counts per row
+    private long[] tagBits;
+    private int[] nameCodes;
+    private int[] tagCodes;
+    private String[] addresses;
+    private String[] aiSummaries;
+
+    private StringDictionary names;
+    private StringDictionary tagStrings;
+    private Map<String, Integer> tagBitIndex;
+    private Map<Integer, Integer> rowsById;
+    private Map<Long, int[]> grid;
+    private double totalRatingSum;
+    private long totalReviewCount;
+
+    public CafeStore(CafeRepository cafeRepository, ReviewRepository reviewRepository) {
+        this.cafeRepository = cafeRepository;
+        this.reviewRepository = reviewRepository;
+        clear(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Load every cafe and its rating totals from the database, replacing the current contents
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        Map<Integer, double[]> ratingStats = new HashMap<>();
+        Map<Integer, int[]> ratingHistograms = new HashMap<>();
+        for (Object[] row : reviewRepository.getRatingCountsByCafe()) {
+            double rating = ((Number) row[1]).doubleValue();
+            long count = ((Number) row[2]).longValue();
+            double[] stats = ratingStats.computeIfAbsent((Integer) row[0], id -> new double[2]);
+            stats[0] += rating * count;
+            stats[1] += count;
+            ratingHistograms.computeIfAbsent((Integer) row[0], id -> new int[HISTOGRAM_BUCKETS])[bucket(rating)] += count;
+        }
+        replaceAll(cafeRepository.findAll(), ratingStats, ratingHistograms);
+        log.info("Loaded {} cafes into the cafe store in {} ms", size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replace the whole store. ratingStats maps cafe id to {sum of ratings, review count} and
+     * ratingHistograms to the review count per half-star bucket.
+     */
+    public void replaceAll(List<Cafe> cafes, Map<Integer, double[]> ratingStats, Map<Integer, int[]> ratingHistograms) {
+        lock.writeLock().lock();
+        try {
+            clear(Math.max(INITIAL_CAPACITY, cafes.size()));
+            for (Cafe cafe : cafes) {
+                int row = upsertRow(cafe);
+                double[] stats = ratingStats.get(cafe.getCafeId());
+                if (stats != null) {
+                    setRatings(row, stats[0], (int) stats[1], ratingHistograms.get(cafe.getCafeId()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a cafe or refresh its descriptive columns. Rating totals of an existing row are kept.
+     */
+    public void put(Cafe cafe) {
+        lock.writeLock().lock();
+        try {
+            upsertRow(cafe);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * One row per cafe with its rating totals, for snapshots that restore() can load back
+     */
+    public record Row(int cafeId, String name, String address, double latitude, double longitude, double price,
+                      long userId, String tags, String aiSummary, double ratingSum, int reviewCount,
+                      int[] ratingHistogram) {
+    }
+
+    public List<Row> rows() {
+        lock.readLock().lock();
+        try {
+            List<Row> rows = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                rows.add(new Row(cafeIds[row], names.decode(nameCodes[row]), addresses[row], latitudes[row],
+                        longitudes[row], prices[row], ownerIds[row], tagStrings.decode(tagCodes[row]),
+                        aiSummaries[row], ratingSums[row], reviewCounts[row], histogram(row)));
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole store with rows previously taken from rows()
+     */
+    public void restore(List<Row> rows) {
+        lock.writeLock().lock();
+        try {
+            clear(Math.max(INITIAL_CAPACITY, rows.size()));
+            for (Row source : rows) {
+                int row = upsertRow(source.cafeId(), source.name(), source.address(), source.latitude(),
+                        source.longitude(), source.price(), source.userId(), source.tags(), source.aiSummary());
+                setRatings(row, source.ratingSum(), source.reviewCount(), source.ratingHistogram());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void applyCafeCreated(CafeCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            upsertRow(event.cafeId(), event.name(), event.address(), event.latitude(), event.longitude(),
+                    event.price(), event.userId(), event.tags(), event.aiSummary());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void applyCafeSummaryUpdated(CafeSummaryUpdatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.get(event.cafeId());
+            if (row != null) {
+                aiSummaries[row] = event.aiSummary();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void applyReviewCreated(ReviewCreatedEvent event) {
+        adjustRating(event.cafeId(), event.rating(), 1);
+    }
+
+    public void applyReviewDeleted(ReviewDeletedEvent event) {
+        adjustRating(event.cafeId(), event.rating(), -1);
+    }
+
+    // countDelta is 1 for an added review with this rating and -1 for a removed one
+    private void adjustRating(Integer cafeId, double rating, int countDelta) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.get(cafeId);
+            // Unknown cafe, or a delete for a review that was never counted
+            if (row == null || reviewCounts[row] + countDelta < 0) {
+                return;
+            }
+            ratingSums[row] += rating * countDelta;
+            reviewCounts[row] += countDelta;
+            totalRatingSum += rating * countDelta;
+            totalReviewCount += countDelta;
+            int bucket = row * HISTOGRAM_BUCKETS + bucket(rating);
+            histograms[bucket] = Math.max(0, histograms[bucket] + countDelta);
+            if (reviewCounts[row] == 0) {
+                // Drop accumulated floating point error once the cafe has no reviews left
+                totalRatingSum -= ratingSums[row];
+                ratingSums[row] = 0.0;
+            }
+            if (totalReviewCount == 0) {
+                totalRatingSum = 0.0;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(Integer cafeId) {
+        lock.readLock().lock();
+        try {
+            return rowsById.containsKey(cafeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<CafeDTO> get(Integer cafeId) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowsById.get(cafeId);
+            return row == null ? Optional.empty() : Optional.of(toDTO(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like get, with the cafe's rating histogram filled in (detail responses only; lists leave it out)
+     */
+    public Optional<CafeDTO> getDetail(Integer cafeId) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowsById.get(cafeId);
+            if (row == null) {
+                return Optional.empty();
+            }
+            CafeDTO cafe = toDTO(row);
+            cafe.setRatingHistogram(histogram(row));
+            return Optional.of(cafe);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Distance from the point to a cafe, read from the coordinate columns; NaN when the cafe is unknown
+    public double distanceMeters(Integer cafeId, double latitude, double longitude) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowsById.get(cafeId);
+            return row == null ? Double.NaN : Geo.distanceMeters(latitude, longitude, latitudes[row], longitudes[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Average rating of a cafe, 0 when it has no reviews or is unknown
+    public double averageRating(Integer cafeId) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowsById.get(cafeId);
+            return row == null ? 0.0 : rating(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int reviewCount(Integer cafeId) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowsById.get(cafeId);
+            return row == null ? 0 : reviewCounts[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter and sort cafes. Every argument is optional; with none the cafes come back in load order.
+     */
+    public List<CafeDTO> find(Double minRating, Double maxPrice, String tag, CafeSort sort, Integer limit) {
+        return find(minRating, maxPrice, tag, sort, limit, this::toDTO);
+    }
+
+    /**
+     * Like find, but each match is read straight from the columns into the requested view, so the
+     * columns a view leaves out are never touched
+     */
+    public List<?> find(Double minRating, Double maxPrice, String tag, CafeSort sort, Integer limit, CafeView view) {
+        return switch (view) {
+            case MARKER -> find(minRating, maxPrice, tag, sort, limit, this::toMarker);
+            case CARD -> find(minRating, maxPrice, tag, sort, limit, this::toCard);
+            case FULL -> find(minRating, maxPrice, tag, sort, limit, this::toDTO);
+        };
+    }
+
+    private <T> List<T> find(Double minRating, Double maxPrice, String tag, CafeSort sort, Integer limit,
+                             IntFunction<T> projection) {
+        lock.readLock().lock();
+        try {
+            IntStream rows = IntStream.range(0, size);
+            if (minRating != null) {
+                rows = rows.filter(row -> rating(row) >= minRating);
+            }
+            if (maxPrice != null) {
+                rows = rows.filter(row -> prices[row] <= maxPrice);
+            }
+            if (tag != null && !tag.isBlank()) {
+                rows = rows.filter(tagFilter(tag.trim()));
+            }
+
+            int[] matches = rows.toArray();
+            if (sort != null) {
+                matches = sortRows(matches, sort);
+            }
+            int count = limit == null ? matches.length : Math.min(Math.max(limit, 0), matches.length);
+
+            List<T> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(projection.apply(matches[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cafes within radiusMeters of the point whose names have a trigram similarity of at least
+     * minSimilarity to name, most similar first
+     */
+    public List<DuplicateCandidate> findNearDuplicates(String name, double latitude, double longitude,
+                                                      double radiusMeters, double minSimilarity) {
+        Set<String> trigrams = TrigramSimilarity.trigrams(name);
+        double latRadius = radiusMeters / Geo.METERS_PER_DEGREE_LATITUDE;
+        double lngRadius = Geo.longitudeDegrees(radiusMeters, latitude);
+        int minY = gridCell(latitude - latRadius);
+        int maxY = gridCell(latitude + latRadius);
+        int minX = gridCell(longitude - lngRadius);
+        int maxX = gridCell(longitude + lngRadius);
+
+        lock.readLock().lock();
+        try {
+            List<DuplicateCandidate> candidates = new ArrayList<>();
+            for (int y = minY; y <= maxY; y++) {
+                for (int x = minX; x <= maxX; x++) {
+                    int[] rows = grid.get(gridKey(y, x));
+                    if (rows == null) {
+                        continue;
+                    }
+                    for (int row : rows) {
+                        double distance = Geo.distanceMeters(latitude, longitude, latitudes[row], longitudes[row]);
+                        if (distance > radiusMeters) {
+                            continue;
+                        }
+                        double similarity = TrigramSimilarity.similarity(trigrams,
+                                TrigramSimilarity.trigrams(names.decode(nameCodes[row])));
+                        if (similarity >= minSimilarity) {
+                            candidates.add(new DuplicateCandidate(toDTO(row), distance, similarity));
+                        }
+                    }
+                }
+            }
+            candidates.sort(Comparator.comparingDouble(DuplicateCandidate::nameSimilarity).reversed()
+                    .thenComparingDouble(DuplicateCandidate::distanceMeters));
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keys of the grid cells findNearDuplicates probes around the point. Two points within
+     * radiusMeters of each other always share a key: each one's cells include the other's cell.
+     */
+    public long[] cellsNear(double latitude, double longitude, double radiusMeters) {
+        double latRadius = radiusMeters / Geo.METERS_PER_DEGREE_LATITUDE;
+        double lngRadius = Geo.longitudeDegrees(radiusMeters, latitude);
+        int minY = gridCell(latitude - latRadius);
+        int maxY = gridCell(latitude + latRadius);
+        int minX = gridCell(longitude - lngRadius);
+        int maxX = gridCell(longitude + lngRadius);
+        long[] keys = new long[(maxY - minY + 1) * (maxX - minX + 1)];
+        int i = 0;
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                keys[i++] = gridKey(y, x);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Parallel aggregation over every cafe for analytics. Each fork-join worker folds its share
+     * of rows into its own container from supplier, and the partial results are merged with combiner.
+     * Writers are blocked for the duration of the scan, so keep the accumulator cheap.
+     */
+    public <A> A parallelScan(Supplier<A> supplier, RowAccumulator<A> accumulator, BinaryOperator<A> combiner) {
+        lock.readLock().lock();
+        try {
+            Columns columns = new Columns();
+            return IntStream.range(0, size).parallel()
+                    .collect(supplier, (container, row) -> accumulator.accept(container, columns, row),
+                            combiner::apply);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Folds one row into a partial result; see parallelScan. */
+    @FunctionalInterface
+    public interface RowAccumulator<A> {
+        void accept(A container, Columns columns, int row);
+    }
+
+    /**
+     * Read-only access to the columns during a scan. Only valid inside the scan that handed it out.
+     */
+    public final class Columns {
+
+        private Columns() {}
+
+        public int cafeId(int row) { return cafeIds[row]; }
+        public double latitude(int row) { return latitudes[row]; }
+        public double longitude(int row) { return longitudes[row]; }
+        public double price(int row) { return prices[row]; }
+        public double rating(int row) { return CafeStore.this.rating(row); }
+        public int reviewCount(int row) { return reviewCounts[row]; }
+        public double ratingSum(int row) { return ratingSums[row]; }
+        public double bayesianRating(int row) { return CafeStore.this.bayesianRating(row); }
+        public int histogramCount(int row, int bucket) { return histograms[row * HISTOGRAM_BUCKETS + bucket]; }
+        public long tagBits(int row) { return tagBits[row]; }
+        public String name(int row) { return names.decode(nameCodes[row]); }
+    }
+
+    // Caller holds the write lock
+    private int upsertRow(Cafe cafe) {
+        return upsertRow(cafe.getCafeId(), cafe.getName(), cafe.getAddress(), cafe.getLatitude(),
+                cafe.getLongitude(), cafe.getPrice(), cafe.getUserId(), cafe.getTags(), cafe.getAiSummary());
+    }
+
+    private int upsertRow(int cafeId, String name, String address, double latitude, double longitude,
+                          double price, long userId, String tags, String aiSummary) {
+        Integer existing = rowsById.get(cafeId);
+        int row;
+        if (existing != null) {
+            row = existing;
+            gridRemove(row);
+        } else {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowsById.put(cafeId, row);
+        }
+        cafeIds[row] = cafeId;
+        latitudes[row] = latitude;
+        longitudes[row] = longitude;
+        prices[row] = price;
+        ownerIds[row] = userId;
+        nameCodes[row] = names.encode(name);
+        tagCodes[row] = tagStrings.encode(tags);
+        tagBits[row] = encodeTags(tags);
+        addresses[row] = address;
+        aiSummaries[row] = aiSummary;
+        gridAdd(row);
+        return row;
+    }
+
+    private static int gridCell(double degrees) {
+        return (int) Math.floor(degrees / GRID_CELL_DEGREES);
+    }
+
+    private static long gridKey(int y, int x) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+
+    private long gridKeyOf(int row) {
+        return gridKey(gridCell(latitudes[row]), gridCell(longitudes[row]));
+    }
+
+    // Cells hold a few rows each, so copying the small array on change is cheaper than a list per cell
+    private void gridAdd(int row) {
+        grid.merge(gridKeyOf(row), new int[]{row}, (rows, added) -> {
+            int[] grown = Arrays.copyOf(rows, rows.length + 1);
+            grown[rows.length] = row;
+            return grown;
+        });
+    }
+
+    private void gridRemove(int row) {
+        grid.computeIfPresent(gridKeyOf(row), (key, rows) -> {
+            int[] kept = Arrays.stream(rows).filter(r -> r != row).toArray();
+            return kept.length == 0 ? null : kept;
+        });
+    }
+
+    private long encodeTags(String tags) {
+        long bits = 0L;
+        if (tags == null) {
+            return bits;
+        }
+        for (String tag : tags.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Integer bit = tagBitIndex.get(trimmed);
+            if (bit == null && tagBitIndex.size() < MAX_TAG_BITS) {
+                bit = tagBitIndex.size();
+                tagBitIndex.put(trimmed, bit);
+            }
+            bits |= bit == null ? OVERFLOW_TAG_BIT : 1L << bit;
+        }
+        return bits;
+    }
+
+    private IntPredicate tagFilter(String tag) {
+        Integer bit = tagBitIndex.get(tag);
+        if (bit != null) {
+            long mask = 1L << bit;
+            return row -> (tagBits[row] & mask) != 0;
+        }
+        // Tags past the first 63 have no bit; fall back to the stored string for flagged rows
+        return row -> (tagBits[row] & OVERFLOW_TAG_BIT) != 0
+                && Arrays.stream(tagStrings.decode(tagCodes[row]).split(","))
+                        .anyMatch(t -> t.trim().equals(tag));
+    }
+
+    // Keys are reduced to their rank among the distinct values so rank and row fit in one long;
+    // sorting those orders the rows by key, ties in row order, without boxing
+    private int[] sortRows(int[] rows, CafeSort sort) {
+        long[] keys = new long[rows.length];
+        switch (sort) {
+            case RATING -> {
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = ~sortableBits(rating(rows[i]));
+                }
+            }
+            case BAYESIAN -> {
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = ~sortableBits(bayesianRating(rows[i]));
+                }
+                toRanks(keys);
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = keys[i] << 32 | (Integer.MAX_VALUE - reviewCounts[rows[i]]);
+                }
+            }
+            case PRICE -> {
+                for (int i = 0; i < rows.length; i++) {
+                    keys[i] = sortableBits(prices[rows[i]]);
+                }
+            }
+            case NAME -> nameRanks(rows, keys);
+        }
+        toRanks(keys);
+
+        long[] packed = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            packed[i] = keys[i] << 32 | rows[i];
+        }
+        Arrays.sort(packed);
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < packed.length; i++) {
+            sorted[i] = (int) packed[i];
+        }
+        return sorted;
+    }
+
+    // A long whose signed order matches Double.compare
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    // Replaces each key with its index among the distinct keys, in ascending order
+    private static void toRanks(long[] keys) {
+        long[] distinct = keys.clone();
+        Arrays.sort(distinct);
+        int count = 0;
+        for (long key : distinct) {
+            if (count == 0 || distinct[count - 1] != key) {
+                distinct[count++] = key;
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Arrays.binarySearch(distinct, 0, count, keys[i]);
+        }
+    }
+
+    private void nameRanks(int[] rows, long[] keys) {
+        Comparator<String> order = Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER);
+        String[] rowNames = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            rowNames[i] = names.decode(nameCodes[rows[i]]);
+        }
+        String[] distinct = rowNames.clone();
+        Arrays.sort(distinct, order);
+        int count = 0;
+        for (String name : distinct) {
+            if (count == 0 || order.compare(distinct[count - 1], name) != 0) {
+                distinct[count++] = name;
+            }
+        }
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = Arrays.binarySearch(distinct, 0, count, rowNames[i], order);
+        }
+    }
+
+    private double rating(int row) {
+        return reviewCounts[row] == 0 ? 0.0 : ratingSums[row] / reviewCounts[row];
+    }
+
+    // Average after adding bayesianPriorWeight reviews at the mean over all cafes, so a cafe with a
+    // handful of perfect reviews does not outrank one with hundreds of good ones
+    private double bayesianRating(int row) {
+        double mean = totalReviewCount == 0 ? 0.0 : totalRatingSum / totalReviewCount;
+        return (bayesianPriorWeight * mean + ratingSums[row]) / (bayesianPriorWeight + reviewCounts[row]);
+    }
+
+    private static int bucket(double rating) {
+        return (int) Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, Math.round(rating * 2)));
+    }
+
+    private int[] histogram(int row) {
+        return Arrays.copyOfRange(histograms, row * HISTOGRAM_BUCKETS, (row + 1) * HISTOGRAM_BUCKETS);
+    }
+
+    // Caller holds the write lock; a missing histogram (older data) leaves the buckets empty
+    private void setRatings(int row, double ratingSum, int reviewCount, int[] histogram) {
+        totalRatingSum += ratingSum - ratingSums[row];
+        totalReviewCount += reviewCount - reviewCounts[row];
+        ratingSums[row] = ratingSum;
+        reviewCounts[row] = reviewCount;
+        if (histogram != null) {
+            System.arraycopy(histogram, 0, histograms, row * HISTOGRAM_BUCKETS, HISTOGRAM_BUCKETS);
+        }
+    }
+
+    private CafeMarker toMarker(int row) {
+        return new CafeMarker(cafeIds[row], names.decode(nameCodes[row]), latitudes[row], longitudes[row], rating(row));
+    }
+
+    private CafeCard toCard(int row) {
+        return new CafeCard(cafeIds[row], names.decode(nameCodes[row]), addresses[row], latitudes[row],
+                longitudes[row], prices[row], rating(row), reviewCounts[row], bayesianRating(row),
+                tagStrings.decode(tagCodes[row]));
+    }
+
+    private CafeDTO toDTO(int row) {
+        return new CafeDTO(cafeIds[row], names.decode(nameCodes[row]), addresses[row],
+                latitudes[row], longitudes[row], prices[row], ownerIds[row], rating(row),
+                reviewCounts[row], bayesianRating(row), tagStrings.decode(tagCodes[row]), aiSummaries[row]);
+    }
+
+    private void clear(int capacity) {
+        size = 0;
+        cafeIds = new int[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        prices = new double[capacity];
+        ownerIds = new long[capacity];
+        ratingSums = new double[capacity];
+        reviewCounts = new int[capacity];
+        histograms = new int[capacity * HISTOGRAM_BUCKETS];
+        tagBits = new long[capacity];
+        nameCodes = new int[capacity];
+        tagCodes = new int[capacity];
+        addresses = new String[capacity];
+        aiSummaries = new String[capacity];
+        names = new StringDictionary();
+        tagStrings = new StringDictionary();
+        tagBitIndex = new HashMap<>();
+        rowsById = new HashMap<>(capacity * 2);
+        grid = new HashMap<>(capacity * 2);
+        totalRatingSum = 0.0;
+        totalReviewCount = 0;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= cafeIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, cafeIds.length * 2);
+        cafeIds = Arrays.copyOf(cafeIds, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        ownerIds = Arrays.copyOf(ownerIds, capacity);
+        ratingSums = Arrays.copyOf(ratingSums, capacity);
+        reviewCounts = Arrays.copyOf(reviewCounts, capacity);
+        histograms = Arrays.copyOf(histograms, capacity * HISTOGRAM_BUCKETS);
+        tagBits = Arrays.copyOf(tagBits, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        tagCodes = Arrays.copyOf(tagCodes, capacity);
+        addresses = Arrays.copyOf(addresses, capacity);
+        aiSummaries = Arrays.copyOf(aiSummaries, capacity);
+    }
+}
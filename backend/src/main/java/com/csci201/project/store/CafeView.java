@@ -0,0 +1,22 @@
+package com.csci201.project.store;
+
+/**
+ * Representations CafeStore.find can project rows into, from smallest to largest.
+ */
+public enum CafeView {
+    MARKER, // CafeMarker: id, name, coordinates and rating
+    CARD,   // CafeCard: everything but the owner and AI summary
+    FULL;   // CafeDTO
+
+    // Parse the ?view= request parameter; FULL when absent
+    public static CafeView fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown view '" + value + "', expected marker, card or full");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.csci201.project.store;
+
+import com.csci201.project.dto.CafeDTO;
+
+/**
+ * An existing cafe close to a submitted one, with how far away it is and how alike the names are (0 to 1).
+ */
+public record DuplicateCandidate(CafeDTO cafe, double distanceMeters, double nameSimilarity) {
+}
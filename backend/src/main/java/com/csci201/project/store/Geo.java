@@ -0,0 +1,27 @@
+package com.csci201.project.store;
+
+/**
+ * Distance helpers for latitude/longitude pairs in degrees.
+ */
+final class Geo {
+
+    static final double METERS_PER_DEGREE_LATITUDE = 111_320.0;
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+
+    private Geo() {
+    }
+
+    // Great-circle distance (haversine)
+    static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Degrees of longitude spanning the given distance at this latitude (capped near the poles)
+    static double longitudeDegrees(double meters, double latitude) {
+        return meters / (METERS_PER_DEGREE_LATITUDE * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+    }
+}
@@ -0,0 +1,229 @@
+package com.csci201.project.store;
+
+import com.csci201.project.dto.CafeDTO;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.util.StreamingJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Hot" cafes: each review adds rating * exp(-lambda * age) to its cafe's score, with lambda set by
+ * app.hot.half-life-hours. Every score decays by the same factor over time, so the scores are kept
+ * relative to a fixed reference time: a review at time t contributes rating * exp(lambda * (t - EPOCH)),
+ * stored as a logarithm so it never overflows. The order never changes on its own; only a review
+ * moves its cafe, with one remove and one insert in a sorted set (O(log n)), and no periodic
+ * recompute is needed. The current score is exp(logScore - lambda * (now - EPOCH)).
+ */
+@Component
+public class HotRanking {
+
+    private static final Logger log = LoggerFactory.getLogger(HotRanking.class);
+
+    private static final long EPOCH_SECONDS = LocalDateTime.of(2024, 1, 1, 0, 0)
+            .atZone(ZoneId.systemDefault()).toEpochSecond();
+
+    // Reviews older than this many half-lives add less than a millionth of a fresh one and are not loaded
+    private static final int LOAD_WINDOW_HALF_LIVES = 20;
+
+    // What is left of a score after a delete, relative to the score before, below which it counts as zero
+    private static final double RESIDUE = 1e-9;
+
+    private record Entry(double logScore, int cafeId) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::logScore).reversed()
+            .thenComparingInt(Entry::cafeId);
+
+    private final CafeStore cafeStore;
+    private final DataSource dataSource;
+    private final String datasourceUrl;
+    private final double halfLifeHours;
+    private final double lambdaPerSecond;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<Integer, Double> logScores = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(ORDER);
+
+    public HotRanking(CafeStore cafeStore, DataSource dataSource,
+                      @Value("${spring.datasource.url}") String datasourceUrl,
+                      @Value("${app.hot.half-life-hours:72}") double halfLifeHours) {
+        this.cafeStore = cafeStore;
+        this.dataSource = dataSource;
+        this.datasourceUrl = datasourceUrl;
+        this.halfLifeHours = halfLifeHours;
+        this.lambdaPerSecond = Math.log(2) / (halfLifeHours * 3600);
+    }
+
+    /**
+     * One cafe with its current hot score, and its distance when the query had a center
+     */
+    public record HotCafe(CafeDTO cafe, double hotScore, Double distanceKm) {
+    }
+
+    /**
+     * Rebuild from the reviews of the last LOAD_WINDOW_HALF_LIVES half-lives, streamed from the database
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        Instant since = Instant.now().minusSeconds((long) (LOAD_WINDOW_HALF_LIVES * halfLifeHours * 3600));
+        Map<Integer, Double> loaded = new HashMap<>();
+        StreamingJdbc.template(dataSource, datasourceUrl).query(
+                "SELECT cafe_id, rating, created_at FROM reviews WHERE created_at >= ?",
+                rs -> {
+                    Timestamp createdAt = rs.getTimestamp(3);
+                    double term = logTerm(rs.getDouble(2), createdAt != null ? createdAt.toLocalDateTime() : null);
+                    // A zero rating adds nothing, as in applyReviewCreated
+                    if (term != Double.NEGATIVE_INFINITY) {
+                        loaded.merge(rs.getInt(1), term, HotRanking::logAddExp);
+                    }
+                },
+                Timestamp.from(since));
+        restore(loaded);
+        log.info("Loaded hot scores for {} cafes in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replace every score, e.g. with logScores() from a snapshot
+     */
+    public void restore(Map<Integer, Double> scores) {
+        lock.writeLock().lock();
+        try {
+            logScores.clear();
+            ranking.clear();
+            scores.forEach(this::set);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<Integer, Double> logScores() {
+        lock.readLock().lock();
+        try {
+            return new HashMap<>(logScores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void applyReviewCreated(ReviewCreatedEvent event) {
+        double term = logTerm(event.rating(), event.createdAt());
+        if (term == Double.NEGATIVE_INFINITY) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Double current = logScores.get(event.cafeId());
+            set(event.cafeId(), current == null ? term : logAddExp(current, term));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void applyReviewDeleted(ReviewDeletedEvent event) {
+        double term = logTerm(event.rating(), event.createdAt());
+        if (term == Double.NEGATIVE_INFINITY) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Double current = logScores.get(event.cafeId());
+            if (current != null) {
+                set(event.cafeId(), logSubExp(current, term));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The hottest cafes, optionally only those within radiusKm of (latitude, longitude)
+     */
+    public List<HotCafe> top(int limit, Double latitude, Double longitude, Double radiusKm) {
+        boolean geo = latitude != null && longitude != null && radiusKm != null;
+        double nowOffset = lambdaPerSecond * (Instant.now().getEpochSecond() - EPOCH_SECONDS);
+        List<HotCafe> result = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            // Walks the ranking from the top; with a radius, cafes outside it are skipped on their
+            // coordinates alone, and a DTO is built only for the cafes that are returned
+            for (Entry entry : ranking) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                double distanceKm = Double.NaN;
+                if (geo) {
+                    distanceKm = cafeStore.distanceMeters(entry.cafeId(), latitude, longitude) / 1000;
+                    // Also false for NaN, a cafe the store does not have
+                    if (!(distanceKm <= radiusKm)) {
+                        continue;
+                    }
+                }
+                CafeDTO cafe = cafeStore.get(entry.cafeId()).orElse(null);
+                if (cafe == null) {
+                    continue;
+                }
+                result.add(new HotCafe(cafe, Math.exp(entry.logScore() - nowOffset), geo ? distanceKm : null));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // Caller holds the write lock; NEGATIVE_INFINITY (a zero score) removes the cafe
+    private void set(Integer cafeId, double logScore) {
+        Double previous = logScore == Double.NEGATIVE_INFINITY ? logScores.remove(cafeId) : logScores.put(cafeId, logScore);
+        if (previous != null) {
+            ranking.remove(new Entry(previous, cafeId));
+        }
+        if (logScore != Double.NEGATIVE_INFINITY) {
+            ranking.add(new Entry(logScore, cafeId));
+        }
+    }
+
+    // log(rating * exp(lambda * (t - EPOCH)))
+    private double logTerm(double rating, LocalDateTime createdAt) {
+        if (rating <= 0 || createdAt == null) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        long seconds = createdAt.atZone(ZoneId.systemDefault()).toEpochSecond() - EPOCH_SECONDS;
+        return Math.log(rating) + lambdaPerSecond * seconds;
+    }
+
+    // log(exp(a) + exp(b)) without overflow; an infinite-negative side (a zero score) leaves the other
+    // as is, where the general formula would compute -inf - -inf = NaN
+    private static double logAddExp(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) {
+            return b;
+        }
+        if (b == Double.NEGATIVE_INFINITY) {
+            return a;
+        }
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    // log(exp(a) - exp(b)); NEGATIVE_INFINITY once nothing meaningful is left
+    private static double logSubExp(double a, double b) {
+        double remaining = -Math.expm1(b - a);
+        return remaining <= RESIDUE ? Double.NEGATIVE_INFINITY : a + Math.log(remaining);
+    }
+}
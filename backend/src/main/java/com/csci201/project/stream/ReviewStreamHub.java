@@ -0,0 +1,339 @@
+package com.csci201.project.stream;
+
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.journal.DerivedStateUpdater;
+import com.csci201.project.model.Review;
+import com.csci201.project.repository.ReviewRepository;
+import com.csci201.project.store.CafeStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live review updates per cafe over Server-Sent Events. Every cafe with viewers has a topic (its set
+ * of subscribers); DerivedStateUpdater reports each applied review change, whether it was made on
+ * this node or arrived through the outbox, and the hub fans it out on its own small pool so the write
+ * path never waits for a client.
+ *
+ * Each subscriber has a bounded queue drained by at most one pool thread at a time. A subscriber
+ * whose queue fills up (a slow or stalled client) is disconnected; its EventSource reconnects and
+ * reloads the reviews. A heartbeat comment keeps proxies from closing idle connections and finds
+ * dead ones.
+ *
+ * Servlet writes block while the client's TCP window is full, so a queue limit alone would let a
+ * few stalled clients hold every pool thread. A watchdog drops any subscriber whose write has run
+ * longer than app.stream.write-timeout-ms and lends the pool a replacement thread until that write
+ * returns, so the other subscribers keep draining.
+ */
+@Component
+public class ReviewStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewStreamHub.class);
+
+    private static final long RECONNECT_MILLIS = 3000;
+
+    private final ReviewRepository reviewRepository;
+    private final CafeStore cafeStore;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Integer, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor pool;
+    private final int threads;
+
+    private final int maxSubscribers;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+
+    private final Counter rejectedCounter;
+    private final Counter slowCounter;
+    private final Counter stalledCounter;
+
+    public ReviewStreamHub(ReviewRepository reviewRepository, CafeStore cafeStore, DerivedStateUpdater updater,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${app.stream.max-subscribers:1000}") int maxSubscribers,
+                           @Value("${app.stream.queue-capacity:32}") int queueCapacity,
+                           @Value("${app.stream.timeout-ms:1800000}") long timeoutMillis,
+                           @Value("${app.stream.threads:2}") int threads,
+                           @Value("${app.stream.write-timeout-ms:5000}") long writeTimeoutMillis) {
+        this.reviewRepository = reviewRepository;
+        this.cafeStore = cafeStore;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        this.threads = threads;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "review-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("reviews.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open review streams on this node")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("reviews.stream.rejected")
+                .description("Stream requests refused because the node was at its subscriber cap")
+                .register(meterRegistry);
+        this.slowCounter = Counter.builder("reviews.stream.dropped")
+                .tag("reason", "slow")
+                .description("Streams closed because the client fell too far behind")
+                .register(meterRegistry);
+        this.stalledCounter = Counter.builder("reviews.stream.dropped")
+                .tag("reason", "stalled")
+                .description("Streams closed because a write to the client did not finish in time")
+                .register(meterRegistry);
+
+        updater.addListener(this::onApplied);
+    }
+
+    /**
+     * Open a stream for the cafe, or return null when this node already has max-subscribers streams
+     */
+    public SseEmitter subscribe(Integer cafeId) {
+        return subscribe(cafeId, new SseEmitter(timeoutMillis));
+    }
+
+    // Takes the emitter so tests can stand in a client that never reads
+    SseEmitter subscribe(Integer cafeId, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            rejectedCounter.increment();
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(cafeId, emitter);
+        // Added under the map's lock for the key, so remove() cannot drop the topic in between
+        topics.compute(cafeId, (id, subscribers) -> {
+            Set<Subscriber> topic = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            topic.add(subscriber);
+            return topic;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        // First write flushes the response headers, so the client's onopen fires right away
+        subscriber.offer(SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment("connected"));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                // A queued event does the same job
+                if (subscriber.queue.isEmpty()) {
+                    subscriber.offer(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop subscribers whose current write has outlasted the write timeout. The blocked thread cannot
+     * be taken back (and the emitter cannot be completed while it is inside send), so the pool gets
+     * a replacement thread; the stuck drain completes the emitter and returns the thread when its
+     * write finally fails or finishes.
+     */
+    @Scheduled(fixedDelayString = "${app.stream.watchdog-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> subscribers : topics.values()) {
+            for (Subscriber subscriber : subscribers) {
+                long started = subscriber.writeStartedNanos;
+                if (started != 0 && now - started > writeTimeoutNanos && subscriber.stalled.compareAndSet(false, true)) {
+                    stalledCounter.increment();
+                    remove(subscriber);
+                    resizePool(1);
+                    log.debug("Dropped review stream for cafe {}: write blocked for over {} ms", subscriber.cafeId,
+                            TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                }
+            }
+        }
+    }
+
+    // Threads on loan to stalled writes are added on top of app.stream.threads
+    private synchronized void resizePool(int delta) {
+        int size = pool.getCorePoolSize() + delta;
+        if (delta > 0) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(Math.max(size, threads));
+            pool.setMaximumPoolSize(Math.max(size, threads));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+        topics.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+    }
+
+    // Called on the writing thread: only hand off to the pool, and only when someone is watching
+    private void onApplied(Object event) {
+        Integer cafeId = switch (event) {
+            case ReviewCreatedEvent e -> e.cafeId();
+            case ReviewDeletedEvent e -> e.cafeId();
+            default -> null;
+        };
+        if (cafeId == null || topics.getOrDefault(cafeId, Set.of()).isEmpty()) {
+            return;
+        }
+        try {
+            pool.execute(() -> broadcast(cafeId, event));
+        } catch (RejectedExecutionException e) {
+            log.debug("Review stream pool is shut down; dropping {}", event);
+        }
+    }
+
+    private void broadcast(Integer cafeId, Object event) {
+        Map<String, Object> data = new HashMap<>();
+        String name;
+        if (event instanceof ReviewCreatedEvent created) {
+            // One lookup per change on this node, however many viewers there are
+            Review review = reviewRepository.findById(created.reviewId()).orElse(null);
+            if (review == null) {
+                return; // deleted again before we got to it; the delete event follows
+            }
+            Map<String, Object> reviewMap = new HashMap<>();
+            reviewMap.put("id", review.getId());
+            reviewMap.put("rating", review.getRating());
+            reviewMap.put("comment", review.getComment());
+            reviewMap.put("createdAt", review.getCreatedAt());
+            reviewMap.put("username", review.getUser().getUsername());
+            reviewMap.put("userId", review.getUser().getId());
+            data.put("review", reviewMap);
+            name = "review-created";
+        } else {
+            data.put("reviewId", ((ReviewDeletedEvent) event).reviewId());
+            name = "review-deleted";
+        }
+        int reviewCount = cafeStore.reviewCount(cafeId);
+        data.put("reviewCount", reviewCount);
+        data.put("averageRating", reviewCount > 0 ? cafeStore.averageRating(cafeId) : null);
+
+        // Serialized once and written as-is to every subscriber
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not encode {} for cafe {}: {}", name, cafeId, e.getMessage());
+            return;
+        }
+        for (Subscriber subscriber : topics.getOrDefault(cafeId, Set.of())) {
+            subscriber.offer(SseEmitter.event().name(name).data(json, MediaType.TEXT_PLAIN));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        topics.computeIfPresent(subscriber.cafeId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private final class Subscriber {
+        final Integer cafeId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean stalled = new AtomicBoolean();
+        // When the write in progress started, 0 between writes; read by the watchdog
+        volatile long writeStartedNanos;
+
+        Subscriber(Integer cafeId, SseEmitter emitter) {
+            this.cafeId = cafeId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                slowCounter.increment();
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                pool.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            boolean failed = false;
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    writeStartedNanos = System.nanoTime();
+                    emitter.send(event);
+                    writeStartedNanos = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter already completed)
+                failed = true;
+                remove(this);
+                emitter.completeWithError(e);
+            } finally {
+                writeStartedNanos = 0;
+                draining.set(false);
+                if (stalled.get()) {
+                    // The watchdog already dropped us and lent the pool a thread; give it back
+                    resizePool(-1);
+                    if (!failed) {
+                        emitter.completeWithError(new TimeoutException("Write to the client did not finish in time"));
+                    }
+                }
+            }
+            // An event offered while we were finishing would otherwise wait for the next one
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.csci201.project.summary;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Term and key-phrase counts over one cafe's review comments, updated one comment at a time.
+ * changedReviews counts comments added (or a recount) since the summary was last written.
+ * Not thread-safe; ReviewSummaryJob only mutates it from its own thread.
+ */
+final class CafeTermStats {
+
+    final Map<String, Integer> terms = new HashMap<>();
+    final Map<String, Integer> phrases = new HashMap<>();
+    long totalTerms;
+    int reviews;
+    int changedReviews;
+
+    /**
+     * Count one comment. onNewTerm is called with every term this cafe had not used before, so
+     * the caller can keep document frequencies across cafes.
+     */
+    void add(String comment, Consumer<String> onNewTerm) {
+        List<String> commentTerms = TextAnalyzer.terms(comment);
+        for (String term : commentTerms) {
+            if (term != null) {
+                if (terms.merge(term, 1, Integer::sum) == 1) {
+                    onNewTerm.accept(term);
+                }
+                totalTerms++;
+            }
+        }
+        for (String phrase : TextAnalyzer.phrases(commentTerms)) {
+            phrases.merge(phrase, 1, Integer::sum);
+        }
+        reviews++;
+    }
+
+    int term(String term) {
+        return terms.getOrDefault(term, 0);
+    }
+
+    int phrase(String phrase) {
+        return phrases.getOrDefault(phrase, 0);
+    }
+}
@@ -0,0 +1,125 @@
+package com.csci201.project.summary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Picks the review sentences that best represent a cafe. A sentence scores for each term other
+ * reviews of the cafe also use, weighted by how often the cafe's reviews use it and how rare it
+ * is across cafes (so "espresso" beats "good"), plus a bonus for recurring key phrases. The best
+ * sentences are taken greedily, skipping ones that repeat an already chosen sentence.
+ */
+final class ExtractiveSummarizer {
+
+    private static final int MIN_SENTENCE_CHARS = 20;
+    private static final int MAX_SENTENCE_CHARS = 240;
+    private static final double MAX_OVERLAP = 0.5;
+
+    private final int maxSentences;
+    private final int maxChars;
+
+    ExtractiveSummarizer(int maxSentences, int maxChars) {
+        this.maxSentences = maxSentences;
+        this.maxChars = maxChars;
+    }
+
+    private record Candidate(String text, Set<String> terms, double score) {
+    }
+
+    /**
+     * Summary of the comments, or null when none of their sentences is representative enough.
+     * documentFrequency maps a term to the number of cafes whose reviews use it.
+     */
+    String summarize(List<String> comments, CafeTermStats stats, Map<String, Integer> documentFrequency,
+                     int cafeCount) {
+        if (stats.totalTerms == 0) {
+            return null;
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String comment : comments) {
+            for (String sentence : TextAnalyzer.sentences(comment)) {
+                if (sentence.length() < MIN_SENTENCE_CHARS || sentence.length() > MAX_SENTENCE_CHARS
+                        || !seen.add(sentence.toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+                Candidate candidate = score(sentence, stats, documentFrequency, cafeCount);
+                if (candidate != null) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed().thenComparing(Candidate::text));
+
+        List<Candidate> chosen = new ArrayList<>();
+        int length = 0;
+        for (Candidate candidate : candidates) {
+            if (chosen.size() >= maxSentences) {
+                break;
+            }
+            int added = candidate.text().length() + (chosen.isEmpty() ? 0 : 1);
+            if (length + added > maxChars || chosen.stream().anyMatch(c -> overlap(c.terms(), candidate.terms()) >= MAX_OVERLAP)) {
+                continue;
+            }
+            chosen.add(candidate);
+            length += added;
+        }
+        if (chosen.isEmpty()) {
+            return null;
+        }
+        StringBuilder summary = new StringBuilder(length);
+        for (Candidate candidate : chosen) {
+            if (!summary.isEmpty()) {
+                summary.append(' ');
+            }
+            summary.append(candidate.text());
+        }
+        return summary.toString();
+    }
+
+    private Candidate score(String sentence, CafeTermStats stats, Map<String, Integer> documentFrequency,
+                            int cafeCount) {
+        List<String> terms = TextAnalyzer.terms(sentence);
+        Set<String> distinct = new HashSet<>();
+        double score = 0;
+        for (String term : terms) {
+            if (term == null || !distinct.add(term)) {
+                continue;
+            }
+            int count = stats.term(term);
+            // A term only this sentence uses says nothing about the cafe
+            if (count >= 2) {
+                double idf = Math.log(1.0 + (double) cafeCount / Math.max(1, documentFrequency.getOrDefault(term, 1)));
+                score += (double) count / stats.totalTerms * idf;
+            }
+        }
+        if (distinct.size() < 2) {
+            return null;
+        }
+        for (String phrase : new HashSet<>(TextAnalyzer.phrases(terms))) {
+            int count = stats.phrase(phrase);
+            if (count >= 2) {
+                score += (double) count / stats.reviews;
+            }
+        }
+        // Long sentences collect more terms; do not let length alone win
+        score /= Math.sqrt(distinct.size());
+        return score > 0 ? new Candidate(sentence, distinct, score) : null;
+    }
+
+    private static double overlap(Set<String> a, Set<String> b) {
+        int shared = 0;
+        for (String term : a) {
+            if (b.contains(term)) {
+                shared++;
+            }
+        }
+        int union = a.size() + b.size() - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+}
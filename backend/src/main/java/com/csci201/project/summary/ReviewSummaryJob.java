@@ -0,0 +1,331 @@
+package com.csci201.project.summary;
+
+import com.csci201.project.dto.CafeDTO;
+import com.csci201.project.event.CafeSummaryUpdatedEvent;
+import com.csci201.project.event.ReviewCreatedEvent;
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.journal.DerivedStateUpdater;
+import com.csci201.project.store.CafeStore;
+import com.csci201.project.util.StreamingJdbc;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps cafes' ai_summary current from their reviews without any external service. Term and
+ * key-phrase counts per cafe (CafeTermStats) are built once from every comment and then updated
+ * incrementally: new reviews are queued as DerivedStateUpdater reports them (from this node or
+ * through the outbox) and their comments are read in batches by id; a deleted review makes its
+ * cafe be recounted, since the deleted comment can no longer be read.
+ *
+ * Every app.summary.interval-ms the cafes whose new comments reach app.summary.change-fraction of
+ * their comments (at most app.summary.max-change-threshold) get a fresh extractive summary of
+ * their newest comments. Summaries are computed in batches on a pool of app.summary.parallelism
+ * threads and a run stops starting batches after app.summary.max-run-ms, so the job never takes
+ * more than a bounded share of the CPU; cafes left over keep their place for the next run.
+ * Each new summary is saved and published as a CafeSummaryUpdatedEvent in one transaction.
+ *
+ * Every node that runs the job arrives at the same summaries; set app.summary.enabled=false on
+ * all but one node to avoid repeating the work.
+ */
+@Component
+public class ReviewSummaryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewSummaryJob.class);
+
+    // Width of cafes.ai_summary
+    private static final int MAX_SUMMARY_CHARS = 500;
+
+    private static final int ID_BATCH = 500;
+
+    private final CafeStore cafeStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExtractiveSummarizer summarizer;
+    private final ForkJoinPool pool;
+
+    private final boolean enabled;
+    private final double changeFraction;
+    private final int maxChangeThreshold;
+    private final int minReviews;
+    private final int maxComments;
+    private final int batchSize;
+    private final long maxRunMillis;
+
+    private final Timer runTimer;
+    private final Counter regeneratedCounter;
+
+    // Filled by DerivedStateUpdater listeners on writing threads, drained by run()
+    private final Queue<Object> pending = new ConcurrentLinkedQueue<>();
+
+    // Only touched by run() (and read by the pool while run() waits for it)
+    private final Map<Integer, CafeTermStats> stats = new HashMap<>();
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private boolean loaded;
+    // Reviews counted by the initial load, whose queued events must not count them again
+    private BitSet loadedReviewIds;
+
+    public ReviewSummaryJob(DerivedStateUpdater updater, CafeStore cafeStore, JdbcTemplate jdbcTemplate,
+                            DataSource dataSource, PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${spring.datasource.url}") String datasourceUrl,
+                            @Value("${app.summary.enabled:true}") boolean enabled,
+                            @Value("${app.summary.change-fraction:0.1}") double changeFraction,
+                            @Value("${app.summary.max-change-threshold:25}") int maxChangeThreshold,
+                            @Value("${app.summary.min-reviews:3}") int minReviews,
+                            @Value("${app.summary.max-comments:200}") int maxComments,
+                            @Value("${app.summary.max-sentences:3}") int maxSentences,
+                            @Value("${app.summary.batch-size:50}") int batchSize,
+                            @Value("${app.summary.parallelism:2}") int parallelism,
+                            @Value("${app.summary.max-run-ms:20000}") long maxRunMillis) {
+        this.cafeStore = cafeStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = StreamingJdbc.template(dataSource, datasourceUrl);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.summarizer = new ExtractiveSummarizer(maxSentences, MAX_SUMMARY_CHARS);
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.enabled = enabled;
+        this.changeFraction = changeFraction;
+        this.maxChangeThreshold = maxChangeThreshold;
+        this.minReviews = minReviews;
+        this.maxComments = maxComments;
+        this.batchSize = batchSize;
+        this.maxRunMillis = maxRunMillis;
+
+        this.runTimer = Timer.builder("summary.run")
+                .description("Time spent per review summary run")
+                .register(meterRegistry);
+        this.regeneratedCounter = Counter.builder("summary.regenerated")
+                .description("Cafe summaries rewritten from reviews")
+                .register(meterRegistry);
+        Gauge.builder("summary.pending.events", pending, Queue::size)
+                .description("Review changes waiting for the next summary run")
+                .register(meterRegistry);
+
+        if (enabled) {
+            updater.addListener(this::onApplied);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    // Called on the writing thread: only queue
+    private void onApplied(Object event) {
+        if (event instanceof ReviewCreatedEvent || event instanceof ReviewDeletedEvent) {
+            pending.add(event);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.summary.interval-ms:300000}",
+            initialDelayString = "${app.summary.initial-delay-ms:60000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            if (!loaded) {
+                loadAll();
+                loaded = true;
+            }
+            applyPending();
+            int written = regenerate(start + TimeUnit.MILLISECONDS.toNanos(maxRunMillis));
+            if (written > 0) {
+                log.info("Rewrote {} cafe summaries in {} ms", written,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Review summary run failed: {}", e.toString());
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void loadAll() {
+        long start = System.currentTimeMillis();
+        // A load that failed partway left its counts behind; start over so they are not counted twice
+        stats.clear();
+        documentFrequency.clear();
+        BitSet ids = new BitSet();
+        readOnlyTransaction.executeWithoutResult(status -> streamingJdbcTemplate.query(
+                "SELECT id, cafe_id, comment FROM reviews WHERE comment IS NOT NULL",
+                (RowCallbackHandler) rs -> {
+                    long id = rs.getLong(1);
+                    if (id <= Integer.MAX_VALUE) {
+                        ids.set((int) id);
+                    }
+                    statsFor(rs.getInt(2)).add(rs.getString(3), this::countNewTerm);
+                }));
+        loadedReviewIds = ids;
+        log.info("Loaded review term statistics for {} cafes ({} terms) in {} ms", stats.size(),
+                documentFrequency.size(), System.currentTimeMillis() - start);
+    }
+
+    private void applyPending() {
+        List<Long> created = new ArrayList<>();
+        Set<Integer> recount = new HashSet<>();
+        Object event;
+        while ((event = pending.poll()) != null) {
+            if (event instanceof ReviewCreatedEvent e) {
+                boolean counted = loadedReviewIds != null && e.reviewId() <= Integer.MAX_VALUE
+                        && loadedReviewIds.get(e.reviewId().intValue());
+                if (!counted) {
+                    created.add(e.reviewId());
+                }
+            } else if (event instanceof ReviewDeletedEvent e) {
+                recount.add(e.cafeId());
+            }
+        }
+        loadedReviewIds = null;
+
+        for (int from = 0; from < created.size(); from += ID_BATCH) {
+            List<Long> ids = created.subList(from, Math.min(created.size(), from + ID_BATCH));
+            // Reviews deleted again before this run are simply not found; their cafe is recounted below
+            jdbcTemplate.query("SELECT cafe_id, comment FROM reviews WHERE comment IS NOT NULL AND id IN ("
+                            + String.join(",", Collections.nCopies(ids.size(), "?")) + ")",
+                    (RowCallbackHandler) rs -> {
+                        int cafeId = rs.getInt(1);
+                        if (!recount.contains(cafeId)) {
+                            CafeTermStats cafe = statsFor(cafeId);
+                            cafe.add(rs.getString(2), this::countNewTerm);
+                            cafe.changedReviews++;
+                        }
+                    }, ids.toArray());
+        }
+
+        for (Integer cafeId : recount) {
+            CafeTermStats old = stats.remove(cafeId);
+            int changed = 1;
+            if (old != null) {
+                old.terms.keySet().forEach(this::uncountTerm);
+                changed += old.changedReviews;
+            }
+            CafeTermStats fresh = statsFor(cafeId);
+            jdbcTemplate.query("SELECT comment FROM reviews WHERE cafe_id = ? AND comment IS NOT NULL",
+                    (RowCallbackHandler) rs -> fresh.add(rs.getString(1), this::countNewTerm), cafeId);
+            fresh.changedReviews = changed;
+        }
+    }
+
+    private int regenerate(long deadlineNanos) {
+        List<Integer> due = new ArrayList<>();
+        for (Map.Entry<Integer, CafeTermStats> entry : stats.entrySet()) {
+            CafeTermStats cafe = entry.getValue();
+            int threshold = Math.min(maxChangeThreshold, Math.max(1, (int) Math.ceil(changeFraction * cafe.reviews)));
+            if (cafe.reviews >= minReviews && cafe.changedReviews >= threshold) {
+                due.add(entry.getKey());
+            }
+        }
+        // Most changed first, so a run that hits its time budget spends it where summaries are most stale
+        due.sort(Comparator.comparingInt((Integer id) -> stats.get(id).changedReviews).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        int written = 0;
+        int cafeCount = stats.size();
+        for (int from = 0; from < due.size() && System.nanoTime() < deadlineNanos; from += batchSize) {
+            List<Integer> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            Map<Integer, List<String>> comments = new HashMap<>();
+            for (Integer cafeId : batch) {
+                comments.put(cafeId, jdbcTemplate.queryForList(
+                        "SELECT comment FROM reviews WHERE cafe_id = ? AND comment IS NOT NULL "
+                                + "ORDER BY created_at DESC LIMIT ?", String.class, cafeId, maxComments));
+            }
+
+            Map<Integer, String> summaries;
+            try {
+                summaries = pool.submit(() -> batch.parallelStream()
+                        .collect(HashMap<Integer, String>::new,
+                                (map, id) -> map.put(id, summarizer.summarize(comments.get(id), stats.get(id),
+                                        documentFrequency, cafeCount)),
+                                HashMap::putAll)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return written;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Summarizing failed", e.getCause());
+            }
+
+            written += save(summaries);
+            batch.forEach(id -> stats.get(id).changedReviews = 0);
+        }
+        return written;
+    }
+
+    // Unchanged and empty summaries are skipped; returns how many were written
+    private int save(Map<Integer, String> summaries) {
+        List<CafeSummaryUpdatedEvent> changed = new ArrayList<>();
+        summaries.forEach((cafeId, summary) -> {
+            if (summary == null) {
+                return;
+            }
+            Optional<CafeDTO> cafe = cafeStore.get(cafeId);
+            if (cafe.isPresent() && !Objects.equals(cafe.get().getAiSummary(), summary)) {
+                changed.add(new CafeSummaryUpdatedEvent(cafeId, summary));
+            }
+        });
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CafeSummaryUpdatedEvent event : changed) {
+                jdbcTemplate.update("UPDATE cafes SET ai_summary = ? WHERE cafe_id = ?", event.aiSummary(),
+                        event.cafeId());
+                eventPublisher.publishEvent(event);
+            }
+        });
+        regeneratedCounter.increment(changed.size());
+        return changed.size();
+    }
+
+    private CafeTermStats statsFor(int cafeId) {
+        return stats.computeIfAbsent(cafeId, id -> new CafeTermStats());
+    }
+
+    private void countNewTerm(String term) {
+        documentFrequency.merge(term, 1, Integer::sum);
+    }
+
+    private void uncountTerm(String term) {
+        documentFrequency.computeIfPresent(term, (t, count) -> count > 1 ? count - 1 : null);
+    }
+}
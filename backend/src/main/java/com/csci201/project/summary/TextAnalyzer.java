@@ -0,0 +1,75 @@
+package com.csci201.project.summary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits review comments into sentences, terms and key phrases. Terms are lower-cased words of
+ * at least three letters that are not stop words; key phrases are pairs of adjacent terms
+ * ("oat latte", "outdoor seating") with no stop word between them.
+ */
+final class TextAnalyzer {
+
+    private static final Pattern SENTENCE_END = Pattern.compile("(?<=[.!?])\\s+|[\\r\\n]+");
+    private static final Pattern NON_LETTER = Pattern.compile("[^\\p{L}']+");
+    private static final Pattern EDGE_APOSTROPHES = Pattern.compile("^'+|'+$");
+
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "but", "for", "are", "was", "were", "this", "that", "with", "have", "has", "had",
+            "you", "your", "they", "them", "their", "its", "it's", "our", "out", "not", "all", "any", "can",
+            "get", "got", "too", "very", "just", "also", "here", "there", "from", "into", "about", "than",
+            "then", "when", "what", "which", "who", "would", "could", "should", "will", "been", "being",
+            "did", "does", "doing", "really", "some", "more", "most", "much", "many", "one", "two", "i'm",
+            "i've", "don't", "didn't", "isn't", "wasn't", "place", "cafe", "café", "coffee", "shop");
+
+    private TextAnalyzer() {
+    }
+
+    static List<String> sentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        if (text == null) {
+            return sentences;
+        }
+        for (String sentence : SENTENCE_END.split(text.trim())) {
+            String trimmed = sentence.trim();
+            if (!trimmed.isEmpty()) {
+                sentences.add(trimmed);
+            }
+        }
+        return sentences;
+    }
+
+    /**
+     * Terms in order of appearance; null marks a stop word or short word, which breaks key phrases
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : NON_LETTER.split(text.toLowerCase(Locale.ROOT))) {
+            String trimmed = EDGE_APOSTROPHES.matcher(word).replaceAll("");
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            terms.add(trimmed.length() < MIN_TERM_LENGTH || STOP_WORDS.contains(trimmed) ? null : trimmed);
+        }
+        return terms;
+    }
+
+    // Adjacent term pairs from terms(), joined with a space
+    static List<String> phrases(List<String> terms) {
+        List<String> phrases = new ArrayList<>();
+        for (int i = 1; i < terms.size(); i++) {
+            if (terms.get(i - 1) != null && terms.get(i) != null) {
+                phrases.add(terms.get(i - 1) + " " + terms.get(i));
+            }
+        }
+        return phrases;
+    }
+}
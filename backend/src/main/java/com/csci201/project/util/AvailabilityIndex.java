@@ -0,0 +1,117 @@
+package com.csci201.project.util;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of taken usernames and emails (compared lowercase).
+ * Each field has a Bloom filter for a fast "definitely absent" answer and an
+ * exact set behind it, which also lets the filters be rebuilt when they fill up.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private static final int INITIAL_CAPACITY = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Field usernames = new Field();
+    private final Field emails = new Field();
+
+    // Record a registered user
+    public void add(String username, String email) {
+        usernames.add(username);
+        emails.add(email);
+    }
+
+    // Username changed: the old name becomes free in the exact set (the filter keeps it until the next rebuild)
+    public void rename(String oldUsername, String newUsername) {
+        usernames.remove(oldUsername);
+        usernames.add(newUsername);
+    }
+
+    // false means the username is definitely not taken; true means "maybe", so check the database
+    public boolean mightContainUsername(String username) {
+        return usernames.mightContain(username);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return emails.mightContain(email);
+    }
+
+    // Exact answers from memory, used by the availability endpoint
+    public boolean isUsernameTaken(String username) {
+        return usernames.contains(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return emails.contains(email);
+    }
+
+    public int size() {
+        return usernames.exact.size();
+    }
+
+    // Forget every value, e.g. before reloading from another source
+    public void clear() {
+        usernames.clear();
+        emails.clear();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Field {
+        private final Set<String> exact = ConcurrentHashMap.newKeySet();
+        private volatile BloomFilter filter = new BloomFilter(INITIAL_CAPACITY, FALSE_POSITIVE_RATE);
+
+        void add(String value) {
+            String key = normalize(value);
+            if (key == null || key.isEmpty()) {
+                return;
+            }
+            exact.add(key);
+            filter.put(key);
+            if (exact.size() > filter.getExpectedInsertions()) {
+                rebuild();
+            }
+        }
+
+        void remove(String value) {
+            String key = normalize(value);
+            if (key != null) {
+                exact.remove(key);
+            }
+        }
+
+        boolean mightContain(String value) {
+            String key = normalize(value);
+            return key != null && filter.mightContain(key);
+        }
+
+        boolean contains(String value) {
+            String key = normalize(value);
+            return key != null && filter.mightContain(key) && exact.contains(key);
+        }
+
+        synchronized void clear() {
+            exact.clear();
+            filter = new BloomFilter(INITIAL_CAPACITY, FALSE_POSITIVE_RATE);
+        }
+
+        // Grow the filter and drop stale bits left by removed values
+        private synchronized void rebuild() {
+            if (exact.size() <= filter.getExpectedInsertions()) {
+                return;
+            }
+            BloomFilter grown = new BloomFilter(exact.size() * 2, FALSE_POSITIVE_RATE);
+            exact.forEach(grown::put);
+            filter = grown;
+            // Values added while rebuilding may have gone into the old filter only
+            exact.forEach(grown::put);
+        }
+    }
+}
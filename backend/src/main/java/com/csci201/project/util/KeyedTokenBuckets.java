@@ -0,0 +1,79 @@
+package com.csci201.project.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of token buckets keyed by an arbitrary string (username, client IP, ...).
+ * Each key gets its own bucket that holds up to {@code capacity} tokens and refills
+ * continuously at {@code refillPerSecond}.
+ */
+public class KeyedTokenBuckets {
+
+    // Idle buckets are dropped once the map grows past this many keys
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final double capacity;
+    private final double refillPerNano;
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public KeyedTokenBuckets(double capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Take one token for the key.
+     * Returns 0 when the call is allowed, otherwise the number of seconds until a token is available.
+     */
+    public long tryAcquire(String key) {
+        if (key == null) {
+            return 0;
+        }
+        if (buckets.size() > MAX_TRACKED_KEYS) {
+            evictFullBuckets();
+        }
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, System.nanoTime()));
+        return bucket.tryAcquire();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evictFullBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private class Bucket {
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+
+        synchronized long tryAcquire() {
+            refill(System.nanoTime());
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                return 0;
+            }
+            double nanosUntilToken = (1.0 - tokens) / refillPerNano;
+            return Math.max(1, (long) Math.ceil(nanosUntilToken / TimeUnit.SECONDS.toNanos(1)));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.csci201.project.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads. The first caller for a key runs the loader,
+ * every caller that arrives while it is still running waits for and shares that result.
+ * Nothing is cached: once the computation finishes the key is released.
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("singleflight.calls", executions, AtomicLong::get)
+                .tag("result", "executed")
+                .description("Reads that ran their own database computation")
+                .register(meterRegistry);
+        FunctionCounter.builder("singleflight.calls", coalesced, AtomicLong::get)
+                .tag("result", "coalesced")
+                .description("Reads that shared an in-flight computation")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.hit.ratio", this, SingleFlight::getHitRatio)
+                .description("Fraction of reads served by an in-flight computation")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.in.flight", inFlight, ConcurrentMap::size)
+                .register(meterRegistry);
+    }
+
+    // Build a key from the endpoint name and its arguments, e.g. "cafes.byId:3"
+    public static String key(String endpoint, Object... args) {
+        StringBuilder sb = new StringBuilder(endpoint);
+        for (Object arg : args) {
+            sb.append(':').append(arg);
+        }
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return (T) join(existing);
+        }
+
+        executions.incrementAndGet();
+        try {
+            T result = loader.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public double getHitRatio() {
+        long shared = coalesced.get();
+        long total = shared + executions.get();
+        return total == 0 ? 0.0 : (double) shared / total;
+    }
+
+    // Rethrow the leader's exception as-is so followers see the same error the leader did
+    private Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.csci201.project.util;
+
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * JdbcTemplates for reading large result sets row by row instead of buffering them.
+ */
+public final class StreamingJdbc {
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private StreamingJdbc() {
+    }
+
+    public static JdbcTemplate template(DataSource dataSource, String jdbcUrl) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // MySQL Connector/J only streams rows one at a time with this sentinel fetch size;
+        // otherwise it buffers the whole result set in memory
+        jdbcTemplate.setFetchSize(DatabaseDriver.fromJdbcUrl(jdbcUrl) == DatabaseDriver.MYSQL
+                ? Integer.MIN_VALUE : DEFAULT_FETCH_SIZE);
+        return jdbcTemplate;
+    }
+}
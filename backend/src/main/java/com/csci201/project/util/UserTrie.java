@@ -18,6 +18,7 @@ public class UserTrie {
     }
 
     private final TrieNode root;
+    private int size;
 
     public UserTrie() {
         root = new TrieNode();
@@ -30,6 +31,9 @@ public class UserTrie {
             current.children.putIfAbsent(ch, new TrieNode());
             current = current.children.get(ch);
         }
+        if (!current.isEndOfWord) {
+            size++;
+        }
         current.isEndOfWord = true;
         current.username = username;
         current.userId = userId;
@@ -50,6 +54,7 @@ public class UserTrie {
                 return false;
             }
             node.isEndOfWord = false;
+            size--;
             node.username = null;
             node.userId = null;
             node.email = null;
@@ -70,6 +75,24 @@ public class UserTrie {
         return node.children.isEmpty() && !node.isEndOfWord;
     }
 
+    // Remove every username
+    public synchronized void clear() {
+        root.children.clear();
+        size = 0;
+    }
+
+    // Number of usernames currently stored
+    public synchronized int size() {
+        return size;
+    }
+
+    // Every stored user, e.g. for snapshots of the trie
+    public synchronized List<UserTrieResult> entries() {
+        List<UserTrieResult> results = new ArrayList<>(size);
+        findAllWords(root, results);
+        return results;
+    }
+
     // Search for usernames starting with prefix (O(L))
     public List<UserTrieResult> searchByPrefix(String prefix) {
         List<UserTrieResult> results = new ArrayList<>();
@@ -0,0 +1,56 @@
+-- ============================================
+-- Initial schema (previously created by data.sql on every start)
+-- Existing databases are baselined at this version and skip it.
+-- ============================================
+
+-- ============================================
+-- CREATE users TABLE (matches JPA User entity)
+-- ============================================
+CREATE TABLE users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(150) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL
+);
+
+-- ============================================
+-- CREATE user_friends TABLE (Many-to-Many relationship)
+-- ============================================
+CREATE TABLE user_friends (
+    user_id BIGINT NOT NULL,
+    friend_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, friend_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (friend_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- ============================================
+-- CREATE cafes TABLE
+-- ============================================
+CREATE TABLE cafes (
+    cafe_id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    address VARCHAR(200) NOT NULL,
+    latitude DOUBLE NOT NULL,
+    longitude DOUBLE NOT NULL,
+    price DOUBLE NOT NULL,
+    user_id BIGINT NOT NULL,
+    overall_rating DOUBLE,
+    tags VARCHAR(200),
+    ai_summary VARCHAR(500),
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+-- ============================================
+-- CREATE reviews TABLE
+-- ============================================
+CREATE TABLE reviews (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    cafe_id INT NOT NULL,
+    rating DOUBLE NOT NULL,
+    comment VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (cafe_id) REFERENCES cafes(cafe_id) ON DELETE CASCADE
+);
@@ -0,0 +1,26 @@
+-- ============================================
+-- Production indexes for the hot lookups
+-- ============================================
+
+-- Reviews for a cafe, newest first (listing, averages, trending windows)
+CREATE INDEX idx_reviews_cafe_created ON reviews (cafe_id, created_at);
+
+-- Earlier versions allowed several reviews by one user for one cafe; keep only the newest (highest id)
+-- so the unique key below can be added. The derived table lets MySQL delete from the table it reads.
+DELETE FROM reviews
+WHERE id IN (
+    SELECT id FROM (
+        SELECT r.id
+        FROM reviews r
+        JOIN reviews newer ON newer.user_id = r.user_id AND newer.cafe_id = r.cafe_id AND newer.id > r.id
+    ) stale
+);
+
+-- One review per user per cafe; also serves lookups by user (countByUserId, my-reviews)
+CREATE UNIQUE INDEX uk_reviews_user_cafe ON reviews (user_id, cafe_id);
+
+-- Reverse friendship lookups ("who has me as a friend")
+CREATE INDEX idx_user_friends_friend ON user_friends (friend_id);
+
+-- Bounding-box queries over cafe coordinates
+CREATE INDEX idx_cafes_lat_lng ON cafes (latitude, longitude);
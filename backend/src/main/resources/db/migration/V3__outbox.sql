@@ -0,0 +1,16 @@
+-- ============================================
+-- Change feed shared by all nodes
+-- ============================================
+
+-- One row per user, review or friend mutation, inserted in the same transaction as the change.
+-- Nodes tail it by id to apply writes made elsewhere to their in-memory views.
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    payload VARCHAR(2000) NOT NULL,
+    origin_node VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
+
+-- Retention cleanup
+CREATE INDEX idx_outbox_created ON outbox_events (created_at);
@@ -0,0 +1,103 @@
+-- ============================================
+-- DEV-ONLY SEED DATA
+-- Run by DevSeedData on every start of the dev profile, after the Flyway migrations. It is not a
+-- migration, so databases started without dev never see it in the schema history.
+-- Every insert skips rows that already exist, matched by username, cafe name and user/cafe pair.
+-- ============================================
+
+-- ============================================
+-- INSERT USER DATA (BCrypt-encoded passwords)
+-- Password for all users is: "testuser"
+-- ============================================
+INSERT INTO users (username, email, password)
+SELECT 'testuser', 'test@usc.edu', '$2a$10$oKjKkpoS93JqjEQ/7jWq/ewiFQh7JHQAEigf6F.dD7C.1Jk1P6PCO' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = 'testuser');
+INSERT INTO users (username, email, password)
+SELECT 'demoUser', 'demo@example.com', '$2a$10$oKjKkpoS93JqjEQ/7jWq/ewiFQh7JHQAEigf6F.dD7C.1Jk1P6PCO' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = 'demoUser');
+INSERT INTO users (username, email, password)
+SELECT 'coffeeKing', 'coffee@usc.edu', '$2a$10$oKjKkpoS93JqjEQ/7jWq/ewiFQh7JHQAEigf6F.dD7C.1Jk1P6PCO' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = 'coffeeKing');
+INSERT INTO users (username, email, password)
+SELECT 'latte_lover', 'latte@usc.edu', '$2a$10$oKjKkpoS93JqjEQ/7jWq/ewiFQh7JHQAEigf6F.dD7C.1Jk1P6PCO' FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM users WHERE username = 'latte_lover');
+
+-- ============================================
+-- INSERT CAFES DATA
+-- ============================================
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Blue Bottle Coffee', '300 S Broadway, Los Angeles, CA', 34.0451, -118.2517, 1, u.id, 4.6, 'bathrooms,outlets', 'Bright space with excellent espresso.'
+FROM users u WHERE u.username = 'testuser'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Blue Bottle Coffee');
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Maru Coffee', '1936 Hillhurst Ave, Los Angeles, CA', 34.1053, -118.2871, 2, u.id, 4.8, 'metro-friendly,wifi', 'Famous for premium matcha drinks.'
+FROM users u WHERE u.username = 'testuser'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Maru Coffee');
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Urth Caffé', '451 S Hewitt St, Los Angeles, CA', 34.0466, -118.2361, 3, u.id, 4.2, 'bathrooms,wifi,outlets', 'Popular organic cafe with great desserts.'
+FROM users u WHERE u.username = 'demoUser'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Urth Caffé');
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Starbucks Reserve', '646 S Main St, Los Angeles, CA', 34.0445, -118.2509, 2, u.id, 4.0, 'wifi,outlets', 'Premium Starbucks experience with unique roasts.'
+FROM users u WHERE u.username = 'coffeeKing'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Starbucks Reserve');
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Verve Coffee', '833 S Spring St, Los Angeles, CA', 34.0430, -118.2545, 2, u.id, 4.7, 'wifi,outlets', 'Trendy spot with excellent pour-overs.'
+FROM users u WHERE u.username = 'latte_lover'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Verve Coffee');
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Intelligentsia Coffee', '3922 Sunset Blvd, Los Angeles, CA', 34.0908, -118.2834, 2, u.id, 4.5, 'wifi,bathrooms', 'Award-winning roasts in a stylish Silver Lake location.'
+FROM users u WHERE u.username = 'testuser'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Intelligentsia Coffee');
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Alfred Coffee', '963 S Broadway, Los Angeles, CA', 34.0456, -118.2564, 3, u.id, 4.3, 'metro-friendly,wifi,outlets', 'Trendy spot known for "But First, Coffee" motto.'
+FROM users u WHERE u.username = 'demoUser'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Alfred Coffee');
+INSERT INTO cafes (name, address, latitude, longitude, price, user_id, overall_rating, tags, ai_summary)
+SELECT 'Philz Coffee', '801 S Hope St, Los Angeles, CA', 34.0459, -118.2592, 2, u.id, 4.4, 'metro-friendly,wifi', 'Personalized pour-over coffee with unique blends.'
+FROM users u WHERE u.username = 'coffeeKing'
+AND NOT EXISTS (SELECT 1 FROM cafes WHERE name = 'Philz Coffee');
+
+-- ============================================
+-- INSERT SAMPLE REVIEWS
+-- ============================================
+INSERT INTO reviews (user_id, cafe_id, rating, comment)
+SELECT u.id, c.cafe_id, 4.5, 'Great espresso, love the ambiance!'
+FROM users u JOIN cafes c ON c.name = 'Blue Bottle Coffee' WHERE u.username = 'testuser'
+AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id AND r.cafe_id = c.cafe_id);
+INSERT INTO reviews (user_id, cafe_id, rating, comment)
+SELECT u.id, c.cafe_id, 5.0, 'Best matcha latte in LA!'
+FROM users u JOIN cafes c ON c.name = 'Maru Coffee' WHERE u.username = 'testuser'
+AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id AND r.cafe_id = c.cafe_id);
+INSERT INTO reviews (user_id, cafe_id, rating, comment)
+SELECT u.id, c.cafe_id, 4.0, 'Good coffee but a bit pricey.'
+FROM users u JOIN cafes c ON c.name = 'Blue Bottle Coffee' WHERE u.username = 'demoUser'
+AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id AND r.cafe_id = c.cafe_id);
+INSERT INTO reviews (user_id, cafe_id, rating, comment)
+SELECT u.id, c.cafe_id, 4.5, 'Amazing organic options.'
+FROM users u JOIN cafes c ON c.name = 'Urth Caffé' WHERE u.username = 'demoUser'
+AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id AND r.cafe_id = c.cafe_id);
+INSERT INTO reviews (user_id, cafe_id, rating, comment)
+SELECT u.id, c.cafe_id, 4.8, 'My go-to spot for studying.'
+FROM users u JOIN cafes c ON c.name = 'Maru Coffee' WHERE u.username = 'coffeeKing'
+AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id AND r.cafe_id = c.cafe_id);
+INSERT INTO reviews (user_id, cafe_id, rating, comment)
+SELECT u.id, c.cafe_id, 4.7, 'Perfect pour-over coffee.'
+FROM users u JOIN cafes c ON c.name = 'Verve Coffee' WHERE u.username = 'latte_lover'
+AND NOT EXISTS (SELECT 1 FROM reviews r WHERE r.user_id = u.id AND r.cafe_id = c.cafe_id);
+
+-- ============================================
+-- INSERT SAMPLE FRIENDSHIPS
+-- ============================================
+INSERT INTO user_friends (user_id, friend_id)
+SELECT u.id, f.id
+FROM users u JOIN users f ON f.username = 'demoUser' WHERE u.username = 'testuser'
+AND NOT EXISTS (SELECT 1 FROM user_friends uf WHERE uf.user_id = u.id AND uf.friend_id = f.id);
+INSERT INTO user_friends (user_id, friend_id)
+SELECT u.id, f.id
+FROM users u JOIN users f ON f.username = 'coffeeKing' WHERE u.username = 'testuser'
+AND NOT EXISTS (SELECT 1 FROM user_friends uf WHERE uf.user_id = u.id AND uf.friend_id = f.id);
+INSERT INTO user_friends (user_id, friend_id)
+SELECT u.id, f.id
+FROM users u JOIN users f ON f.username = 'testuser' WHERE u.username = 'demoUser'
+AND NOT EXISTS (SELECT 1 FROM user_friends uf WHERE uf.user_id = u.id AND uf.friend_id = f.id);
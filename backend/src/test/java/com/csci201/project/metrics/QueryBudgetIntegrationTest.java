@@ -0,0 +1,354 @@
+package com.csci201.project.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls every endpoint against an H2 database with query-budget.fail-on-exceed=true and checks
+ * that none of them issues more statements than its @QueryBudget allows. Statements are counted
+ * at the JDBC level, so JdbcTemplate queries and registration's async continuation count too.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetIntegrationTest {
+
+    private static final String PASSWORD = "Budget#1";
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    private int port;
+
+    private String aliceToken;
+    private String bobToken;
+    private String adminToken;
+    private long aliceId;
+    private long bobId;
+    private int cafeId;
+    private Map<String, Double> exceededBefore;
+
+    @BeforeAll
+    void createData() throws Exception {
+        aliceToken = registerAndLogin("budget_alice");
+        bobToken = registerAndLogin("budget_bob");
+        adminToken = registerAndLogin("budget_admin");
+        aliceId = json(call(HttpMethod.GET, "/api/users/me", aliceToken, null)).get("id").asLong();
+        bobId = json(call(HttpMethod.GET, "/api/users/me", bobToken, null)).get("id").asLong();
+
+        cafeId = createCafe(aliceToken, "Budget Roasters", 34.0224, -118.2851);
+        createCafe(aliceToken, "Quota Coffee Bar", 34.0500, -118.2500);
+        call(HttpMethod.POST, "/api/reviews/cafe/" + cafeId, bobToken,
+                Map.of("rating", 4.5, "comment", "Great espresso and quiet tables."));
+        call(HttpMethod.POST, "/api/users/add-friend/" + bobId, aliceToken, null);
+    }
+
+    @BeforeEach
+    void rememberExceeded() {
+        exceededBefore = exceededByEndpoint();
+    }
+
+    @AfterEach
+    void noBudgetExceeded() {
+        Map<String, Double> exceeded = exceededByEndpoint();
+        exceeded.replaceAll((endpoint, count) -> count - exceededBefore.getOrDefault(endpoint, 0.0));
+        exceeded.values().removeIf(count -> count == 0);
+        assertThat(exceeded).as("requests over their query budget").isEmpty();
+    }
+
+    private Map<String, Double> exceededByEndpoint() {
+        Map<String, Double> exceeded = new HashMap<>();
+        for (Counter counter : meterRegistry.find("query.budget.exceeded").counters()) {
+            exceeded.merge(counter.getId().getTag("method") + " " + counter.getId().getTag("uri"), counter.count(),
+                    Double::sum);
+        }
+        return exceeded;
+    }
+
+    // Auth
+
+    @Test
+    void register() {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/auth/register", null,
+                Map.of("username", "budget_new", "email", "budget_new@example.com", "password", PASSWORD));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void registerTakenUsername() {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/auth/register", null,
+                Map.of("username", "budget_alice", "email", "other@example.com", "password", PASSWORD));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void login() {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/auth/login", null,
+                Map.of("username", "budget_alice", "password", PASSWORD));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void loginWrongPassword() {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/auth/login", null,
+                Map.of("username", "budget_alice", "password", "Wrong#123"));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void loginUnknownUser() {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/auth/login", null,
+                Map.of("username", "budget_nobody", "password", PASSWORD));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void availability() {
+        assertOk(call(HttpMethod.GET, "/api/auth/availability?username=budget_alice&email=x@example.com", null, null));
+    }
+
+    @Test
+    void authTest() {
+        assertOk(call(HttpMethod.GET, "/api/auth/test", null, null));
+    }
+
+    // Cafes
+
+    @Test
+    void listCafes() {
+        for (String view : List.of("full", "card", "marker")) {
+            assertOk(call(HttpMethod.GET, "/api/cafes?sort=rating&view=" + view, null, null));
+        }
+    }
+
+    @Test
+    void trendingCafes() {
+        assertOk(call(HttpMethod.GET, "/api/cafes/trending", null, null));
+    }
+
+    @Test
+    void hotCafes() {
+        assertOk(call(HttpMethod.GET, "/api/cafes/hot", null, null));
+        assertOk(call(HttpMethod.GET, "/api/cafes/hot?latitude=34.02&longitude=-118.28&radiusKm=5", null, null));
+    }
+
+    @Test
+    void recommendedCafes() {
+        assertOk(call(HttpMethod.GET, "/api/cafes/recommended", bobToken, null));
+        // JdbcTemplate statements are counted too, not only Hibernate's
+        DistributionSummary statements = meterRegistry.find("db.request.statements")
+                .tag("uri", "/api/cafes/recommended")
+                .summary();
+        assertThat(statements).isNotNull();
+        assertThat(statements.max()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void cafeById() {
+        assertOk(call(HttpMethod.GET, "/api/cafes/" + cafeId, null, null));
+    }
+
+    @Test
+    void createCafe() {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/cafes", aliceToken, cafeRequest(
+                "Statement Count Cafe", 34.1000, -118.3000));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    }
+
+    @Test
+    void createDuplicateCafe() {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/cafes", aliceToken, cafeRequest(
+                "Budget Roasters", 34.0224, -118.2851));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    // Reviews
+
+    @Test
+    void reviewsForCafe() {
+        assertOk(call(HttpMethod.GET, "/api/reviews/cafe/" + cafeId, null, null));
+    }
+
+    @Test
+    void friendReviewsForCafe() {
+        assertOk(call(HttpMethod.GET, "/api/reviews/cafe/" + cafeId + "/friends", aliceToken, null));
+    }
+
+    @Test
+    void reviewStream() throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/reviews/cafe/" + cafeId + "/stream"))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        // Returns once the headers arrive; the stream itself stays open until closed
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        response.body().close();
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void createAndDeleteReview() throws Exception {
+        int cafe = createCafe(aliceToken, "Review Churn Cafe", 34.2000, -118.4000);
+        ResponseEntity<String> created = call(HttpMethod.POST, "/api/reviews/cafe/" + cafe, aliceToken,
+                Map.of("rating", 3.5, "comment", "Fine pour-over."));
+        assertOk(created);
+        long reviewId = json(created).get("review").get("id").asLong();
+
+        ResponseEntity<String> again = call(HttpMethod.POST, "/api/reviews/cafe/" + cafe, aliceToken,
+                Map.of("rating", 4, "comment", "Second try."));
+        assertThat(again.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        assertOk(call(HttpMethod.DELETE, "/api/reviews/" + reviewId, aliceToken, null));
+    }
+
+    @Test
+    void myReviews() {
+        assertOk(call(HttpMethod.GET, "/api/reviews/my-reviews", bobToken, null));
+    }
+
+    // Users
+
+    @Test
+    void searchUsers() {
+        assertOk(call(HttpMethod.GET, "/api/users/search?query=budget", aliceToken, null));
+    }
+
+    @Test
+    void addAndRemoveFriend() throws Exception {
+        String carolToken = registerAndLogin("budget_carol");
+        assertOk(call(HttpMethod.POST, "/api/users/add-friend/" + aliceId, carolToken, null));
+        assertOk(call(HttpMethod.DELETE, "/api/users/remove-friend/" + aliceId, carolToken, null));
+    }
+
+    @Test
+    void friends() {
+        assertOk(call(HttpMethod.GET, "/api/users/friends", aliceToken, null));
+    }
+
+    @Test
+    void updateProfile() throws Exception {
+        String daveToken = registerAndLogin("budget_dave");
+        assertOk(call(HttpMethod.PUT, "/api/users/profile", daveToken, Map.of("username", "budget_david")));
+    }
+
+    @Test
+    void me() {
+        assertOk(call(HttpMethod.GET, "/api/users/me", aliceToken, null));
+    }
+
+    @Test
+    void userProfile() {
+        assertOk(call(HttpMethod.GET, "/api/users/" + bobId + "/profile", aliceToken, null));
+    }
+
+    // Admin
+
+    @Test
+    void exportReviews() {
+        assertOk(call(HttpMethod.GET, "/api/admin/export/reviews", adminToken, null));
+        assertOk(call(HttpMethod.GET, "/api/admin/export/reviews?sinceId=0&gzip=true", adminToken, null));
+    }
+
+    @Test
+    void exportCafes() {
+        assertOk(call(HttpMethod.GET, "/api/admin/export/cafes", adminToken, null));
+    }
+
+    @Test
+    void adminStats() {
+        assertOk(call(HttpMethod.GET, "/api/admin/stats?days=30", adminToken, null));
+    }
+
+    // Test endpoints
+
+    @Test
+    void testEndpoints() {
+        assertOk(call(HttpMethod.GET, "/api/test/public", null, null));
+        assertOk(call(HttpMethod.GET, "/api/test/protected", aliceToken, null));
+    }
+
+    private String registerAndLogin(String username) throws Exception {
+        assertOk(call(HttpMethod.POST, "/api/auth/register", null,
+                Map.of("username", username, "email", username + "@example.com", "password", PASSWORD)));
+        ResponseEntity<String> login = call(HttpMethod.POST, "/api/auth/login", null,
+                Map.of("username", username, "password", PASSWORD));
+        assertOk(login);
+        return json(login).get("token").asText();
+    }
+
+    private int createCafe(String token, String name, double latitude, double longitude) throws Exception {
+        ResponseEntity<String> response = call(HttpMethod.POST, "/api/cafes?force=true", token,
+                cafeRequest(name, latitude, longitude));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return json(response).get("cafeId").asInt();
+    }
+
+    private Map<String, Object> cafeRequest(String name, double latitude, double longitude) {
+        return Map.of("name", name, "address", "1 Test Way", "latitude", latitude, "longitude", longitude,
+                "price", 5.5, "tags", List.of("wifi", "quiet"));
+    }
+
+    private ResponseEntity<String> call(HttpMethod method, String path, String token, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON, MediaType.ALL));
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        ResponseEntity<String> response = rest.exchange(path, method, new HttpEntity<>(body, headers), String.class);
+        assertThat(response.getStatusCode().is5xxServerError())
+                .as("%s %s returned %s: %s", method, path, response.getStatusCode(), response.getBody())
+                .isFalse();
+        return response;
+    }
+
+    private void assertOk(ResponseEntity<String> response) {
+        assertThat(response.getStatusCode().is2xxSuccessful())
+                .as("status %s: %s", response.getStatusCode(), response.getBody())
+                .isTrue();
+    }
+
+    private JsonNode json(ResponseEntity<String> response) throws Exception {
+        return objectMapper.readTree(response.getBody());
+    }
+}
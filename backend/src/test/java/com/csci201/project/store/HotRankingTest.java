@@ -0,0 +1,75 @@
+package com.csci201.project.store;
+
+import com.csci201.project.dto.CafeDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reviews rated 0 add nothing to a cafe's hot score; two of them used to combine into a NaN score
+ * that sorted to the top of /api/cafes/hot.
+ */
+class HotRankingTest {
+
+    private static final String URL = "jdbc:h2:mem:hot_ranking;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private JdbcTemplate jdbcTemplate;
+    private HotRanking hotRanking;
+
+    @BeforeEach
+    void createRanking() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE reviews (id BIGINT AUTO_INCREMENT PRIMARY KEY, cafe_id INT NOT NULL, "
+                + "rating DOUBLE NOT NULL, created_at TIMESTAMP)");
+
+        CafeStore cafeStore = mock(CafeStore.class);
+        when(cafeStore.get(anyInt())).thenAnswer(invocation -> Optional.of(new CafeDTO(invocation.getArgument(0),
+                "Cafe", "Address", 34.0, -118.0, 2, 1, 0, 0, 0, null, null)));
+        hotRanking = new HotRanking(cafeStore, dataSource, URL, 72);
+    }
+
+    @AfterEach
+    void dropTable() {
+        jdbcTemplate.execute("DROP TABLE reviews");
+    }
+
+    @Test
+    void zeroRatedReviewsDoNotProduceNaN() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO reviews (cafe_id, rating, created_at) VALUES (1, 0, ?), (1, 0, ?), (2, 4, ?)",
+                now, now, now);
+
+        hotRanking.reload();
+        List<HotRanking.HotCafe> hot = hotRanking.top(10, null, null, null);
+
+        assertThat(hot).extracting(h -> h.cafe().getCafeId()).containsExactly(2);
+        assertThat(hot).allSatisfy(h -> assertThat(h.hotScore()).isFinite());
+        assertThat(hotRanking.logScores()).doesNotContainKey(1);
+    }
+
+    @Test
+    void zeroRatedReviewDoesNotChangeAnExistingScore() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO reviews (cafe_id, rating, created_at) VALUES (1, 4, ?)", now);
+        hotRanking.reload();
+        double before = hotRanking.logScores().get(1);
+
+        jdbcTemplate.update("INSERT INTO reviews (cafe_id, rating, created_at) VALUES (1, 0, ?)", now);
+        hotRanking.reload();
+
+        assertThat(hotRanking.logScores().get(1)).isEqualTo(before);
+    }
+}
@@ -0,0 +1,94 @@
+package com.csci201.project.stream;
+
+import com.csci201.project.event.ReviewDeletedEvent;
+import com.csci201.project.journal.DerivedStateUpdater;
+import com.csci201.project.repository.ReviewRepository;
+import com.csci201.project.store.CafeStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Clients whose writes never finish must not hold up delivery to everyone else: with both pool
+ * threads stuck in a write, the watchdog drops the stalled streams and the healthy one still gets
+ * its events.
+ */
+class ReviewStreamHubTest {
+
+    private static final int CAFE_ID = 7;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch releaseStalled = new CountDownLatch(1);
+    private ReviewStreamHub hub;
+    private Consumer<Object> listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createHub() {
+        DerivedStateUpdater updater = mock(DerivedStateUpdater.class);
+        hub = new ReviewStreamHub(mock(ReviewRepository.class), mock(CafeStore.class), updater, new ObjectMapper(),
+                meterRegistry, 10, 32, 60_000, 2, 100);
+        ArgumentCaptor<Consumer<Object>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(updater).addListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @AfterEach
+    void shutdown() {
+        releaseStalled.countDown();
+        hub.shutdown();
+    }
+
+    @Test
+    void stalledSubscribersDoNotBlockOthers() throws Exception {
+        CountDownLatch stalledWrites = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            hub.subscribe(CAFE_ID, new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) throws IOException {
+                    // A client that stopped reading: the write blocks until the test ends
+                    stalledWrites.countDown();
+                    try {
+                        releaseStalled.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IOException("Broken pipe");
+                }
+            });
+        }
+        assertThat(stalledWrites.await(5, TimeUnit.SECONDS)).as("both pool threads stuck in a write").isTrue();
+
+        CountDownLatch received = new CountDownLatch(2); // "connected" comment, then the review event
+        hub.subscribe(CAFE_ID, new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                received.countDown();
+            }
+        });
+        listener.accept(new ReviewDeletedEvent(1L, CAFE_ID, 1L, 4.0, LocalDateTime.now()));
+
+        Thread.sleep(200);
+        hub.dropStalledSubscribers();
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).as("healthy subscriber got its events").isTrue();
+        assertThat(meterRegistry.get("reviews.stream.dropped").tag("reason", "stalled").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("reviews.stream.subscribers").gauge().value()).isEqualTo(1);
+    }
+}
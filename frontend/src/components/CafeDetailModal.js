@@ -6,9 +6,9 @@ import AuthService from '../services/AuthService';
 const CafeDetailModal = ({ cafe, onClose }) => {
     const [reviews, setReviews] = useState([]);
     const [averageRating, setAverageRating] = useState(0);
-    const [reviewCount, setReviewCount] = useState(0);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState("");
+    const [friendIds, setFriendIds] = useState(new Set());
 
     // Review form state
     const [showReviewForm, setShowReviewForm] = useState(false);
@@ -21,12 +21,65 @@ const CafeDetailModal = ({ cafe, onClose }) => {
     const currentUser = AuthService.getCurrentUser();
     const isLoggedIn = !!currentUser;
 
+    const reviewCount = reviews.length;
+
+    // Friends' reviews first; the sort is stable, so each group keeps its order
+    const orderedReviews = [...reviews].sort((a, b) => friendIds.has(b.userId) - friendIds.has(a.userId));
+
+    // Which reviewers are friends only changes when the friend list does, so it is loaded once per cafe
     useEffect(() => {
-        if (cafe?.cafeId) {
-            fetchReviews();
+        if (!cafe?.cafeId || !isLoggedIn) {
+            return;
         }
+        axios.get(`http://localhost:8080/api/reviews/cafe/${cafe.cafeId}/friends`, {
+            headers: AuthService.getAuthHeader()
+        })
+            .then(res => setFriendIds(new Set((res.data.reviews || []).map(r => r.userId))))
+            .catch(err => console.error("Error fetching friends' reviews:", err));
+    }, [cafe, isLoggedIn]);
+
+    // Live updates: the list is loaded whenever the stream (re)connects and then kept current by
+    // its events, so nothing is refetched after posting or deleting
+    useEffect(() => {
+        if (!cafe?.cafeId) {
+            return;
+        }
+        const source = new EventSource(`http://localhost:8080/api/reviews/cafe/${cafe.cafeId}/stream`);
+        let opened = false;
+
+        source.onopen = () => {
+            opened = true;
+            fetchReviews();
+        };
+        source.onerror = () => {
+            // The browser retries on its own; if the stream was refused outright, load once without it
+            if (!opened && source.readyState === EventSource.CLOSED) {
+                fetchReviews();
+            }
+        };
+        source.addEventListener('review-created', (e) => {
+            const data = JSON.parse(e.data);
+            addReview(data.review);
+            setAverageRating(data.averageRating || 0);
+        });
+        source.addEventListener('review-deleted', (e) => {
+            const data = JSON.parse(e.data);
+            removeReview(data.reviewId);
+            setAverageRating(data.averageRating || 0);
+        });
+
+        return () => source.close();
     }, [cafe]);
 
+    // Local changes may also arrive over the stream, so both helpers are idempotent
+    const addReview = (review) => {
+        setReviews(prev => prev.some(r => r.id === review.id) ? prev : [...prev, review]);
+    };
+
+    const removeReview = (reviewId) => {
+        setReviews(prev => prev.filter(r => r.id !== reviewId));
+    };
+
     const fetchReviews = async () => {
         setLoading(true);
         setError("");
@@ -35,7 +88,6 @@ const CafeDetailModal = ({ cafe, onClose }) => {
             const res = await axios.get(`http://localhost:8080/api/reviews/cafe/${cafe.cafeId}`);
             setReviews(res.data.reviews || []);
             setAverageRating(res.data.averageRating || 0);
-            setReviewCount(res.data.reviewCount || 0);
         } catch (err) {
             console.error("Error fetching reviews:", err);
             setError("Failed to load reviews");
@@ -68,8 +120,8 @@ const CafeDetailModal = ({ cafe, onClose }) => {
                 setNewComment("");
                 setShowReviewForm(false);
 
-                // Refresh reviews
-                await fetchReviews();
+                addReview(res.data.review);
+                setAverageRating(res.data.newAverageRating || 0);
             }
         } catch (err) {
             console.error("Error submitting review:", err);
@@ -85,12 +137,12 @@ const CafeDetailModal = ({ cafe, onClose }) => {
         }
 
         try {
-            await axios.delete(`http://localhost:8080/api/reviews/${reviewId}`, {
+            const res = await axios.delete(`http://localhost:8080/api/reviews/${reviewId}`, {
                 headers: AuthService.getAuthHeader()
             });
 
-            // Refresh reviews
-            await fetchReviews();
+            removeReview(reviewId);
+            setAverageRating(res.data.newAverageRating || 0);
         } catch (err) {
             console.error("Error deleting review:", err);
             alert(err.response?.data?.error || "Failed to delete review");
@@ -245,11 +297,14 @@ const CafeDetailModal = ({ cafe, onClose }) => {
                         <p style={styles.emptyText}>No reviews yet. Be the first to review!</p>
                     ) : (
                         <div style={styles.reviewsList}>
-                            {reviews.map((review) => (
+                            {orderedReviews.map((review) => (
                                 <div key={review.id} style={styles.reviewCard}>
                                     <div style={styles.reviewHeader}>
                                         <div>
                                             <strong style={styles.reviewUsername}>{review.username}</strong>
+                                            {friendIds.has(review.userId) && (
+                                                <span style={styles.friendBadge}>Friend</span>
+                                            )}
                                             <div style={styles.reviewRating}>
                                                 {[...Array(5)].map((_, i) => (
                                                     <Star
@@ -529,6 +584,15 @@ const styles = {
         fontSize: '1rem',
         color: '#333'
     },
+    friendBadge: {
+        marginLeft: '8px',
+        padding: '2px 8px',
+        borderRadius: '10px',
+        backgroundColor: '#e8f4ea',
+        color: '#2e7d32',
+        fontSize: '0.75rem',
+        fontWeight: '600'
+    },
     reviewRating: {
         display: 'flex',
         alignItems: 'center',
@@ -1,4 +1,4 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import AuthService from '../services/AuthService';
 
@@ -14,6 +14,35 @@ const Register = () => {
 
   const navigate = useNavigate();
 
+  // Live availability check, debounced so we only ask once typing pauses
+  useEffect(() => {
+    if (username.trim().length < 3 && !/^\S+@\S+\.\S+$/.test(email)) {
+      return;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const data = await AuthService.checkAvailability(username.trim(), email.trim());
+        setErrors((prev) => {
+          const next = { ...prev };
+          if (data.usernameAvailable === false) {
+            next.username = 'Username is already taken!';
+          } else if (next.username === 'Username is already taken!') {
+            delete next.username;
+          }
+          if (data.emailAvailable === false) {
+            next.email = 'Email is already in use!';
+          } else if (next.email === 'Email is already in use!') {
+            delete next.email;
+          }
+          return next;
+        });
+      } catch (err) {
+        // Availability is only a hint; the register call is still authoritative
+      }
+    }, 400);
+    return () => clearTimeout(timer);
+  }, [username, email]);
+
   const handleSubmit = async (e) => {
     e.preventDefault();
     setErrors({});
@@ -29,6 +29,12 @@ class AuthService {
     });
   }
 
+  checkAvailability(username, email) {
+    return axios
+      .get(API_URL + '/availability', { params: { username, email } })
+      .then(response => response.data);
+  }
+
   getCurrentUser() {
     return JSON.parse(localStorage.getItem('user'));
   }
@@ -20,7 +20,7 @@ trap cleanup SIGINT SIGTERM EXIT
 # Start backend in background
 echo "Starting backend..."
 cd backend
-mvn spring-boot:run > ../backend.log 2>&1 &
+mvn spring-boot:run -Dspring-boot.run.profiles=dev > ../backend.log 2>&1 &
 BACKEND_PID=$!
 cd ..
 